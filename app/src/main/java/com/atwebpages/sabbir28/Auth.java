@@ -29,8 +29,8 @@ import java.io.File;
  * <p>
  * Each operation supports three calling styles:
  * <ul>
- *     <li><b>Async</b> — uses legacy AsyncTask (runs on background → callback on main thread)</li>
- *     <li><b>InBackground</b> — uses plain Thread + Handler (recommended over AsyncTask)</li>
+ *     <li><b>Async</b> — runs on the {@link com.atwebpages.sabbir28.Core.TaskScheduler} network lane → callback on main thread</li>
+ *     <li><b>InBackground</b> — same scheduler, kept for existing callers</li>
  *     <li><b>Sync</b> — blocking call (only use from background threads / coroutines / workers)</li>
  * </ul>
  * <p>
@@ -75,7 +75,7 @@ public final class Auth {
     // ─────────────────────────────────────────────
 
     /**
-     * Register a new user asynchronously using AsyncTask.
+     * Register a new user asynchronously.
      * <p>
      * <b>Example with error handling:</b>
      * <pre>{@code
@@ -116,7 +116,7 @@ public final class Auth {
     }
 
     /**
-     * Register a new user on a background thread (recommended over AsyncTask).
+     * Register a new user in the background (same as {@link #registerAsync}).
      * Callback is posted back to the main thread via Handler.
      */
     public static void registerInBackground(
@@ -149,7 +149,7 @@ public final class Auth {
     // ─────────────────────────────────────────────
 
     /**
-     * Login user asynchronously using AsyncTask.
+     * Login user asynchronously.
      * <p>
      * <b>Example:</b>
      * <pre>{@code
@@ -0,0 +1,132 @@
+package com.atwebpages.sabbir28.Core;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CircuitBreaker stops calling a host that keeps failing.
+ * <p>
+ * After {@link #FAILURE_THRESHOLD} consecutive failures (connection errors or
+ * 5xx) the circuit opens and requests fail immediately with
+ * {@link OpenException}. Once the cool-down passes, one probe request is let
+ * through: success closes the circuit, failure reopens it with a longer
+ * cool-down (doubling up to {@link #MAX_OPEN_MS}).
+ * <p>
+ * This keeps the app from hammering a free-tier host that is already down,
+ * and lets callers fail fast instead of waiting out timeouts.
+ */
+public final class CircuitBreaker {
+
+    private static final String TAG = "CircuitBreaker";
+
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long BASE_OPEN_MS = 30_000L;
+    private static final long MAX_OPEN_MS = 5 * 60_000L;
+
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    private enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /** Thrown instead of sending a request while the host's circuit is open. */
+    public static final class OpenException extends IOException {
+        OpenException(String host, long retryInMs) {
+            super("Circuit open for " + host + ", retry in " + retryInMs + "ms");
+        }
+    }
+
+    private final String host;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+    private long openMs = BASE_OPEN_MS;
+
+    private CircuitBreaker(String host) {
+        this.host = host;
+    }
+
+    public static CircuitBreaker forHost(String host) {
+        CircuitBreaker breaker = BREAKERS.get(host);
+        if (breaker == null) {
+            CircuitBreaker created = new CircuitBreaker(host);
+            breaker = BREAKERS.putIfAbsent(host, created);
+            if (breaker == null) {
+                breaker = created;
+            }
+        }
+        return breaker;
+    }
+
+    /**
+     * @throws OpenException while the circuit is open, or while another
+     *                       caller's probe is still outstanding
+     */
+    public synchronized void checkAllowed() throws OpenException {
+        long now = SystemClock.elapsedRealtime();
+        switch (state) {
+            case CLOSED:
+                return;
+            case OPEN:
+                if (now >= openUntil) {
+                    state = State.HALF_OPEN;
+                    Log.i(TAG, host + " half-open, sending probe");
+                    return;
+                }
+                throw new OpenException(host, openUntil - now);
+            case HALF_OPEN:
+            default:
+                throw new OpenException(host, 0L);
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            Log.i(TAG, host + " closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        openMs = BASE_OPEN_MS;
+    }
+
+    /**
+     * @return true if the circuit is open after this failure, e.g. a failed
+     *         probe; a retry would only meet {@link OpenException}
+     */
+    public synchronized boolean recordFailure() {
+        consecutiveFailures++;
+
+        if (state == State.HALF_OPEN) {
+            openMs = Math.min(openMs * 2, MAX_OPEN_MS);
+            trip();
+        } else if (state == State.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD) {
+            trip();
+        }
+        return state == State.OPEN;
+    }
+
+    /**
+     * The attempt ended without saying anything about the host (cancelled,
+     * or no network at all). A pending probe slot is handed to the next caller.
+     */
+    public synchronized void recordInconclusive() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openUntil = SystemClock.elapsedRealtime();
+        }
+    }
+
+    private void trip() {
+        state = State.OPEN;
+        openUntil = SystemClock.elapsedRealtime() + openMs;
+        Log.w(TAG, host + " open for " + openMs + "ms after "
+                + consecutiveFailures + " consecutive failures");
+    }
+}
@@ -1,14 +1,13 @@
 package com.atwebpages.sabbir28.Core;
 
-import android.util.Base64;
+import org.json.JSONObject;
 
-import java.io.BufferedReader;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 public class HTTP {
@@ -25,141 +24,98 @@ public class HTTP {
 
     // ===== GET request (for verify with token) =====
     public static Response get(String urlString) {
-        HttpURLConnection connection = null;
         try {
-            URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(15000);
-            connection.setReadTimeout(15000);
-
-            int responseCode = connection.getResponseCode();
-            BufferedReader reader;
-            if (responseCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
-                reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-            } else {
-                reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-            }
-
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-            reader.close();
-
-            return new Response(responseCode, response.toString());
+            HttpEngine.Response response = HttpEngine.execute(HttpEngine.Request.get(urlString));
+            return new Response(response.code, response.bodyString());
 
         } catch (Exception e) {
             e.printStackTrace();
-            return new Response(-1, e.getMessage());
-        } finally {
-            if (connection != null) connection.disconnect();
+            return failure(e);
         }
     }
 
     // ===== POST request with JSON body (login) =====
     public static Response postJson(String urlString, String jsonBody) {
-        HttpURLConnection connection = null;
         try {
-            URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setConnectTimeout(15000);
-            connection.setReadTimeout(15000);
-            connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
-            connection.setDoOutput(true);
-
-            try (DataOutputStream os = new DataOutputStream(connection.getOutputStream())) {
-                os.write(jsonBody.getBytes("UTF-8"));
-                os.flush();
-            }
-
-            int responseCode = connection.getResponseCode();
-            BufferedReader reader;
-            if (responseCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
-                reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-            } else {
-                reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-            }
-
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) response.append(line);
-            reader.close();
-
-            return new Response(responseCode, response.toString());
+            byte[] payload = jsonBody.getBytes(StandardCharsets.UTF_8);
+            HttpEngine.Response response = HttpEngine.execute(HttpEngine.Request.post(
+                    urlString,
+                    "application/json; charset=UTF-8",
+                    out -> out.write(payload)
+            ));
+            return new Response(response.code, response.bodyString());
 
         } catch (Exception e) {
             e.printStackTrace();
-            return new Response(-1, e.getMessage());
-        } finally {
-            if (connection != null) connection.disconnect();
+            return failure(e);
         }
     }
 
     // ===== POST request with multipart/form-data (register/edit with image) =====
     public static Response postMultipart(String urlString, Map<String, String> params, String fileParam, File file) {
-        HttpURLConnection connection = null;
         String boundary = "----Boundary" + System.currentTimeMillis();
         try {
-            URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setConnectTimeout(15000);
-            connection.setReadTimeout(15000);
-            connection.setDoOutput(true);
-            connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-
-            DataOutputStream out = new DataOutputStream(connection.getOutputStream());
-
-            // Text params
-            if (params != null) {
-                for (Map.Entry<String, String> entry : params.entrySet()) {
-                    out.writeBytes("--" + boundary + "\r\n");
-                    out.writeBytes("Content-Disposition: form-data; name=\"" + entry.getKey() + "\"\r\n\r\n");
-                    out.writeBytes(entry.getValue() + "\r\n");
-                }
-            }
-
-            // File param
-            if (file != null && file.exists()) {
-                out.writeBytes("--" + boundary + "\r\n");
-                out.writeBytes("Content-Disposition: form-data; name=\"" + fileParam + "\"; filename=\"" + file.getName() + "\"\r\n");
-                out.writeBytes("Content-Type: application/octet-stream\r\n\r\n");
-
-                FileInputStream fis = new FileInputStream(file);
-                byte[] buffer = new byte[4096];
-                int bytesRead;
-                while ((bytesRead = fis.read(buffer)) != -1) out.write(buffer, 0, bytesRead);
-                fis.close();
-                out.writeBytes("\r\n");
-            }
-
-            out.writeBytes("--" + boundary + "--\r\n");
-            out.flush();
-            out.close();
-
-            int responseCode = connection.getResponseCode();
-            BufferedReader reader;
-            if (responseCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
-                reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-            } else {
-                reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-            }
-
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) response.append(line);
-            reader.close();
-
-            return new Response(responseCode, response.toString());
+            HttpEngine.Response response = HttpEngine.execute(HttpEngine.Request.post(
+                    urlString,
+                    "multipart/form-data; boundary=" + boundary,
+                    stream -> {
+                        DataOutputStream out = new DataOutputStream(stream);
+
+                        // Text params
+                        if (params != null) {
+                            for (Map.Entry<String, String> entry : params.entrySet()) {
+                                out.writeBytes("--" + boundary + "\r\n");
+                                out.writeBytes("Content-Disposition: form-data; name=\"" + entry.getKey() + "\"\r\n\r\n");
+                                out.writeBytes(entry.getValue() + "\r\n");
+                            }
+                        }
+
+                        // File param
+                        if (file != null && file.exists()) {
+                            out.writeBytes("--" + boundary + "\r\n");
+                            out.writeBytes("Content-Disposition: form-data; name=\"" + fileParam + "\"; filename=\"" + file.getName() + "\"\r\n");
+                            out.writeBytes("Content-Type: application/octet-stream\r\n\r\n");
+
+                            byte[] buffer = HttpEngine.acquireBuffer();
+                            try (FileInputStream fis = new FileInputStream(file)) {
+                                int bytesRead;
+                                while ((bytesRead = fis.read(buffer)) != -1) out.write(buffer, 0, bytesRead);
+                            } finally {
+                                HttpEngine.releaseBuffer(buffer);
+                            }
+                            out.writeBytes("\r\n");
+                        }
+
+                        out.writeBytes("--" + boundary + "--\r\n");
+                        out.flush();
+                    }
+            ));
+            return new Response(response.code, response.bodyString());
 
         } catch (Exception e) {
             e.printStackTrace();
-            return new Response(-1, e.getMessage());
-        } finally {
-            if (connection != null) connection.disconnect();
+            return failure(e);
         }
     }
-}
\ No newline at end of file
+
+    // ===== Failure before any server response =====
+
+    /**
+     * Code -1 with a body shaped like the server's own errors
+     * ({@code {"message": ...}}), so the *Error parsers show something readable
+     * instead of a raw exception string.
+     */
+    private static Response failure(Exception e) {
+        String message;
+        if (e instanceof CircuitBreaker.OpenException) {
+            message = "Server is temporarily unavailable. Please try again shortly.";
+        } else if (e instanceof UnknownHostException) {
+            message = "No internet connection.";
+        } else if (e instanceof SocketTimeoutException) {
+            message = "Server took too long to respond.";
+        } else {
+            message = "Network error. Please try again.";
+        }
+        return new Response(-1, "{\"message\":" + JSONObject.quote(message) + "}");
+    }
+}
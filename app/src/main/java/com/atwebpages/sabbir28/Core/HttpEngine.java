@@ -0,0 +1,645 @@
+package com.atwebpages.sabbir28.Core;
+
+import android.os.SystemClock;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * HttpEngine is the single HTTP stack shared by every network call in the app
+ * (auth server, GitHub API, raw routine downloads, APK downloads).
+ * <p>
+ * It keeps connections alive instead of calling {@code disconnect()}: a
+ * {@link Call} drains and closes its body so the socket returns to the
+ * platform keep-alive pool, and back-to-back requests to the same host reuse
+ * one TCP/TLS session. Concurrent connections per host are bounded, read
+ * buffers are pooled and timeouts are uniform.
+ * <p>
+ * Responses are negotiated with {@code Accept-Encoding: gzip, deflate} and
+ * decompressed while streaming; {@link #wireBytes()} and
+ * {@link #decodedBytes()} count what crossed the network versus what callers
+ * read.
+ * <p>
+ * Transient failures are retried with jittered backoff ({@link RetryPolicy})
+ * and a host that keeps failing is cut off for a while ({@link CircuitBreaker}).
+ * <p>
+ * Every exchange is timed by phase (DNS, connect + TLS, time to first byte,
+ * body) into {@link LatencyHistograms}.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * try (HttpEngine.Call call = HttpEngine.open(HttpEngine.Request.get(url))) {
+ *     InputStream body = call.body();
+ *     // stream it
+ * }
+ *
+ * HttpEngine.Response response = HttpEngine.execute(HttpEngine.Request.get(url));
+ * }</pre>
+ */
+public final class HttpEngine {
+
+    public static final int CONNECT_TIMEOUT_MS = 15000;
+    public static final int READ_TIMEOUT_MS = 15000;
+
+    private static final int MAX_CONNECTIONS_PER_HOST = 4;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_POOLED_BUFFERS = 8;
+    /** Leftover bytes worth reading on close so the socket can be reused. */
+    private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final AtomicLong WIRE_BYTES = new AtomicLong();
+    private static final AtomicLong DECODED_BYTES = new AtomicLong();
+
+    private static final Map<String, Semaphore> HOST_PERMITS = new ConcurrentHashMap<>();
+
+    /** Hosts whose cold lookup has been timed in this process. */
+    private static final Set<String> DNS_SAMPLED =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private static final BlockingQueue<byte[]> BUFFERS =
+            new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+    static {
+        System.setProperty("http.keepAlive", "true");
+        System.setProperty("http.maxConnections", String.valueOf(MAX_CONNECTIONS_PER_HOST));
+    }
+
+    private HttpEngine() {}
+
+    /** Streams a request body into the connection. */
+    public interface BodyWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    // ─────────────────────────────────────────────
+    //  REQUEST / RESPONSE
+    // ─────────────────────────────────────────────
+
+    public static final class Request {
+
+        final String url;
+        final String method;
+        final Map<String, String> headers = new LinkedHashMap<>();
+        final BodyWriter body;
+        int readTimeoutMs = READ_TIMEOUT_MS;
+        boolean compressed = true;
+        @Nullable
+        RetryPolicy retryPolicy;
+
+        private Request(String url, String method, @Nullable BodyWriter body) {
+            this.url = url;
+            this.method = method;
+            this.body = body;
+        }
+
+        public static Request get(String url) {
+            return new Request(url, "GET", null);
+        }
+
+        public static Request post(String url, String contentType, BodyWriter body) {
+            return new Request(url, "POST", body).header("Content-Type", contentType);
+        }
+
+        public Request header(String name, @Nullable String value) {
+            if (value != null) {
+                headers.put(name, value);
+            }
+            return this;
+        }
+
+        /** Longer read timeout for large transfers such as APK downloads. */
+        public Request readTimeout(int millis) {
+            this.readTimeoutMs = millis;
+            return this;
+        }
+
+        /**
+         * Ask for the body uncompressed, for payloads that are already
+         * compressed (APKs) or whose byte count must match Content-Length.
+         */
+        public Request identityEncoding() {
+            this.compressed = false;
+            return this;
+        }
+
+        /**
+         * Overrides the default policy (GET: {@link RetryPolicy#IDEMPOTENT},
+         * anything else: {@link RetryPolicy#NONE}).
+         */
+        public Request retry(RetryPolicy policy) {
+            this.retryPolicy = policy;
+            return this;
+        }
+
+        RetryPolicy retryPolicy() {
+            if (retryPolicy != null) {
+                return retryPolicy;
+            }
+            return "GET".equals(method) ? RetryPolicy.IDEMPOTENT : RetryPolicy.NONE;
+        }
+
+        public String url() {
+            return url;
+        }
+
+        public String method() {
+            return method;
+        }
+    }
+
+    /** A fully buffered response. */
+    public static final class Response {
+
+        public final int code;
+        public final byte[] body;
+        private final HttpURLConnection connection;
+
+        Response(int code, byte[] body, HttpURLConnection connection) {
+            this.code = code;
+            this.body = body;
+            this.connection = connection;
+        }
+
+        @Nullable
+        public String header(String name) {
+            return connection.getHeaderField(name);
+        }
+
+        public String bodyString() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * An open exchange whose body is streamed by the caller.
+     * Always close it, ideally with try-with-resources.
+     */
+    public static final class Call implements Closeable {
+
+        private final HttpURLConnection connection;
+        private final Semaphore permit;
+        private final int code;
+        private final Timing timing;
+        private InputStream body;
+        private boolean closed;
+
+        Call(HttpURLConnection connection, Semaphore permit, int code, Timing timing) {
+            this.connection = connection;
+            this.permit = permit;
+            this.code = code;
+            this.timing = timing;
+        }
+
+        public int code() {
+            return code;
+        }
+
+        public boolean isSuccessful() {
+            return code >= 200 && code < 300;
+        }
+
+        @Nullable
+        public String header(String name) {
+            return connection.getHeaderField(name);
+        }
+
+        /**
+         * Declared body length in bytes, or -1 when unknown. A compressed
+         * body reports -1 since only its wire length is declared.
+         */
+        public long contentLength() {
+            if (contentEncoding() != null) {
+                return -1L;
+            }
+            String value = connection.getHeaderField("Content-Length");
+            if (value == null) {
+                return -1L;
+            }
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                return -1L;
+            }
+        }
+
+        /**
+         * Response body, or the error body for 4xx/5xx, already decompressed.
+         * Never null.
+         */
+        public InputStream body() throws IOException {
+            if (body == null) {
+                InputStream raw = code >= HttpURLConnection.HTTP_BAD_REQUEST
+                        ? connection.getErrorStream()
+                        : connection.getInputStream();
+                boolean bodiless = code == HttpURLConnection.HTTP_NOT_MODIFIED
+                        || code == HttpURLConnection.HTTP_NO_CONTENT;
+                if (raw == null || bodiless) {
+                    // A 304 still carries Content-Encoding; there is nothing to inflate.
+                    if (raw != null) {
+                        raw.close();
+                    }
+                    body = new ByteArrayInputStream(new byte[0]);
+                } else {
+                    InputStream wire = new CountingInputStream(raw, WIRE_BYTES);
+                    body = new CountingInputStream(decode(wire, contentEncoding()), DECODED_BYTES);
+                }
+            }
+            return body;
+        }
+
+        /** "gzip" or "deflate", or null for an identity body. */
+        @Nullable
+        private String contentEncoding() {
+            String encoding = connection.getHeaderField("Content-Encoding");
+            if (encoding == null) {
+                return null;
+            }
+            encoding = encoding.trim().toLowerCase(Locale.ROOT);
+            return encoding.isEmpty() || "identity".equals(encoding) ? null : encoding;
+        }
+
+        public byte[] readBytes() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = acquireBuffer();
+            try {
+                InputStream in = body();
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            } finally {
+                releaseBuffer(buffer);
+            }
+            return out.toByteArray();
+        }
+
+        /**
+         * Drains what is left of the body and closes it so the connection
+         * goes back to the keep-alive pool. Falls back to disconnect when the
+         * remainder is too large to be worth reading.
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            try {
+                InputStream in = body();
+                byte[] buffer = acquireBuffer();
+                try {
+                    long drained = 0;
+                    int read;
+                    while (drained < MAX_DRAIN_BYTES && (read = in.read(buffer)) != -1) {
+                        drained += read;
+                    }
+                    if (drained >= MAX_DRAIN_BYTES) {
+                        connection.disconnect();
+                    }
+                } finally {
+                    releaseBuffer(buffer);
+                }
+                in.close();
+            } catch (IOException e) {
+                connection.disconnect();
+            } finally {
+                permit.release();
+                timing.record();
+            }
+        }
+    }
+
+    /** Phase durations of one exchange, recorded when its {@link Call} closes. */
+    private static final class Timing {
+
+        final String endpoint;
+        final long startedAt = SystemClock.elapsedRealtime();
+        long dnsMs = -1L;
+        long connectMs = -1L;
+        long ttfbMs = -1L;
+        long headersAt;
+
+        Timing(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        void record() {
+            long now = SystemClock.elapsedRealtime();
+            LatencyHistograms.record(endpoint, LatencyHistograms.Phase.DNS, dnsMs);
+            LatencyHistograms.record(endpoint, LatencyHistograms.Phase.CONNECT, connectMs);
+            LatencyHistograms.record(endpoint, LatencyHistograms.Phase.TTFB, ttfbMs);
+            LatencyHistograms.record(endpoint, LatencyHistograms.Phase.BODY, now - headersAt);
+            LatencyHistograms.record(endpoint, LatencyHistograms.Phase.TOTAL, now - startedAt);
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    //  EXECUTION
+    // ─────────────────────────────────────────────
+
+    /**
+     * Sends the request and returns once the status line and headers are in.
+     * <p>
+     * Connection failures and transient statuses (408, 429, 5xx) are retried
+     * per the request's {@link RetryPolicy}; the host's {@link CircuitBreaker}
+     * is consulted before every attempt. A failure that opens the circuit is
+     * returned (or thrown) as is rather than retried, and so is a status whose
+     * Retry-After exceeds the policy's max delay. A failure after the status
+     * line (while the caller reads the body) is not retried here.
+     */
+    public static Call open(Request request) throws IOException {
+        URL url = new URL(request.url);
+        String host = url.getHost();
+        RetryPolicy policy = request.retryPolicy();
+        CircuitBreaker breaker = CircuitBreaker.forHost(host);
+
+        RetryPolicy.recordRequest(host);
+
+        for (int attempt = 1; ; attempt++) {
+            breaker.checkAllowed();
+
+            Call call;
+            try {
+                call = openOnce(request, url);
+            } catch (IOException e) {
+                boolean opened = false;
+                if (RetryPolicy.isTransient(e)) {
+                    opened = breaker.recordFailure();
+                } else {
+                    breaker.recordInconclusive();
+                }
+                if (opened || !policy.shouldRetry(attempt, e)
+                        || !RetryPolicy.tryAcquireRetry(host)) {
+                    throw e;
+                }
+                sleepBeforeRetry(policy.backoffMs(attempt, null));
+                continue;
+            } catch (RuntimeException e) {
+                // Says nothing about the host, but must not keep a half-open probe slot.
+                breaker.recordInconclusive();
+                throw e;
+            }
+
+            // A failed probe (or the failure that tripped the circuit) ends the
+            // loop: the caller gets this status, not the OpenException a retry would.
+            boolean opened = false;
+            if (call.code >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+                opened = breaker.recordFailure();
+            } else {
+                breaker.recordSuccess();
+            }
+
+            if (!opened && policy.shouldRetry(attempt, call.code)) {
+                long delay = policy.backoffMs(attempt, call.header("Retry-After"));
+                if (delay >= 0 && RetryPolicy.tryAcquireRetry(host)) {
+                    call.close();
+                    sleepBeforeRetry(delay);
+                    continue;
+                }
+            }
+
+            return call;
+        }
+    }
+
+    private static Call openOnce(Request request, URL url) throws IOException {
+        Semaphore permit = permitFor(url.getHost());
+
+        try {
+            permit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + url.getHost());
+        }
+
+        // Queueing for a permit is not part of any phase.
+        Timing timing = new Timing(LatencyHistograms.endpointOf(url));
+
+        HttpURLConnection connection = null;
+        try {
+            timing.dnsMs = sampleDns(url.getHost());
+
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod(request.method);
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(request.readTimeoutMs);
+
+            // Setting Accept-Encoding ourselves turns off the platform's implicit
+            // gzip handling, so decoding happens in Call.body() for both codings.
+            connection.setRequestProperty(
+                    "Accept-Encoding",
+                    request.compressed ? ACCEPT_ENCODING : "identity"
+            );
+
+            for (Map.Entry<String, String> header : request.headers.entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+
+            if (request.body != null) {
+                connection.setDoOutput(true);
+            }
+
+            // Explicit so TCP + TLS setup is timed apart from the server's work;
+            // a pooled connection makes this near zero.
+            long connectStart = SystemClock.elapsedRealtime();
+            connection.connect();
+            timing.connectMs = SystemClock.elapsedRealtime() - connectStart;
+
+            if (request.body != null) {
+                try (OutputStream out = connection.getOutputStream()) {
+                    request.body.writeTo(out);
+                    out.flush();
+                }
+            }
+
+            // From the last byte sent, so an upload does not count as server time.
+            long sent = SystemClock.elapsedRealtime();
+            int code = connection.getResponseCode();
+            timing.headersAt = SystemClock.elapsedRealtime();
+            timing.ttfbMs = timing.headersAt - sent;
+            return new Call(connection, permit, code, timing);
+
+        } catch (IOException | RuntimeException e) {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            permit.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Times the first lookup of {@code host} in this process, the cold one
+     * its first connection needs anyway; that connection's own lookup then
+     * hits the resolver cache. Later exchanges ride pooled connections or
+     * cached answers and are not sampled, so no lookup is added to them.
+     *
+     * @return lookup time, or -1 when the host was already sampled or did
+     *         not resolve; connect() then reports the failure itself
+     */
+    private static long sampleDns(String host) {
+        if (!DNS_SAMPLED.add(host)) {
+            return -1L;
+        }
+        long start = SystemClock.elapsedRealtime();
+        try {
+            InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            // Offline; time the lookup once the host resolves.
+            DNS_SAMPLED.remove(host);
+            return -1L;
+        }
+        return SystemClock.elapsedRealtime() - start;
+    }
+
+    private static void sleepBeforeRetry(long delayMs) throws InterruptedIOException {
+        if (delayMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during retry backoff");
+        }
+    }
+
+    /**
+     * Sends the request and reads the whole body.
+     */
+    public static Response execute(Request request) throws IOException {
+        try (Call call = open(request)) {
+            byte[] body = call.readBytes();
+            return new Response(call.code, body, call.connection);
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    //  COMPRESSION
+    // ─────────────────────────────────────────────
+
+    /** Total response bytes received from the network since process start. */
+    public static long wireBytes() {
+        return WIRE_BYTES.get();
+    }
+
+    /** Total response bytes handed to callers after decompression. */
+    public static long decodedBytes() {
+        return DECODED_BYTES.get();
+    }
+
+    private static InputStream decode(InputStream wire, @Nullable String encoding)
+            throws IOException {
+        if (encoding == null) {
+            return wire;
+        }
+        if ("gzip".equals(encoding) || "x-gzip".equals(encoding)) {
+            return new GZIPInputStream(wire, BUFFER_SIZE);
+        }
+        if ("deflate".equals(encoding)) {
+            // "deflate" is meant to be zlib-wrapped, but some servers send raw
+            // deflate; a zlib stream starts with 0x78.
+            BufferedInputStream buffered = new BufferedInputStream(wire, BUFFER_SIZE);
+            buffered.mark(1);
+            int first = buffered.read();
+            buffered.reset();
+            boolean zlib = first == 0x78;
+            return new InflaterInputStream(buffered, new Inflater(!zlib), BUFFER_SIZE);
+        }
+        throw new IOException("Unsupported Content-Encoding: " + encoding);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final AtomicLong counter;
+
+        CountingInputStream(InputStream in, AtomicLong counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                counter.incrementAndGet();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                counter.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            if (skipped > 0) {
+                counter.addAndGet(skipped);
+            }
+            return skipped;
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    //  BUFFERS
+    // ─────────────────────────────────────────────
+
+    /** Borrow an 8 KB read buffer; hand it back with {@link #releaseBuffer}. */
+    public static byte[] acquireBuffer() {
+        byte[] buffer = BUFFERS.poll();
+        return buffer != null ? buffer : new byte[BUFFER_SIZE];
+    }
+
+    public static void releaseBuffer(byte[] buffer) {
+        if (buffer != null && buffer.length == BUFFER_SIZE) {
+            BUFFERS.offer(buffer);
+        }
+    }
+
+    private static Semaphore permitFor(String host) {
+        Semaphore permit = HOST_PERMITS.get(host);
+        if (permit == null) {
+            Semaphore created = new Semaphore(MAX_CONNECTIONS_PER_HOST, true);
+            permit = HOST_PERMITS.putIfAbsent(host, created);
+            if (permit == null) {
+                permit = created;
+            }
+        }
+        return permit;
+    }
+}
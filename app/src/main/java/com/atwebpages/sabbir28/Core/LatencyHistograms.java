@@ -0,0 +1,496 @@
+package com.atwebpages.sabbir28.Core;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * LatencyHistograms records how long each phase of every HTTP exchange
+ * took, so a slow start can be pinned on DNS, connection setup, the server
+ * or the transfer.
+ * <p>
+ * Samples land in fixed-bucket histograms keyed by day, endpoint (host plus
+ * first path segment), network type and {@link Phase}. Recording is a map
+ * lookup and an increment; nothing is logged per call. Histograms are kept
+ * for {@link #KEEP_DAYS} days in a small file written at most every
+ * {@link #FLUSH_DELAY_MS}.
+ * <p>
+ * Finished days are handed out once by {@link #takeUnreported()} as
+ * percentile summaries for analytics; {@link #summaries()} aggregates
+ * everything kept, for the diagnostics screen.
+ */
+public final class LatencyHistograms {
+
+    private static final String TAG = "LatencyHistograms";
+
+    private static final String FILE_NAME = "net_latency.json";
+    private static final int KEEP_DAYS = 7;
+    private static final long FLUSH_DELAY_MS = 30_000L;
+    private static final long NETWORK_TYPE_TTL_MS = 10_000L;
+
+    /** Upper bucket bounds in ms; one more bucket holds everything slower. */
+    private static final long[] BOUNDS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private static final String NETWORK_UNKNOWN = "unknown";
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+    private static final Object LOCK = new Object();
+
+    /** "day|endpoint|network|phase" → bucket counts. */
+    private static final Map<String, long[]> COUNTS = new HashMap<>();
+    private static final Set<String> REPORTED_DAYS = new HashSet<>();
+
+    @Nullable
+    private static volatile File file;
+    @Nullable
+    private static volatile ConnectivityManager connectivity;
+
+    private static boolean flushScheduled;
+    private static String networkType = NETWORK_UNKNOWN;
+    private static long networkTypeAt;
+    private static String day;
+    private static long dayAt;
+
+    private LatencyHistograms() {
+        // utility class
+    }
+
+    public enum Phase {
+        /** Cold name lookup, timed on the first connection to each host per process. */
+        DNS,
+        /** TCP connect plus TLS handshake; near zero on a reused connection. */
+        CONNECT,
+        /** Request fully sent (after any upload) until the status line arrives. */
+        TTFB,
+        /** Status line until the caller closes the body. */
+        BODY,
+        /** The whole exchange. */
+        TOTAL
+    }
+
+    public static final class Summary {
+        public final String day;
+        public final String endpoint;
+        public final String network;
+        public final Phase phase;
+        public final long count;
+        public final long p50;
+        public final long p90;
+        public final long p99;
+
+        Summary(String day, String endpoint, String network, Phase phase, long[] buckets) {
+            this.day = day;
+            this.endpoint = endpoint;
+            this.network = network;
+            this.phase = phase;
+            this.count = total(buckets);
+            this.p50 = percentile(buckets, 0.50);
+            this.p90 = percentile(buckets, 0.90);
+            this.p99 = percentile(buckets, 0.99);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return endpoint + " " + network + " " + phase
+                    + " n=" + count + " p50=" + p50 + " p90=" + p90 + " p99=" + p99;
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    //  SETUP
+    // ─────────────────────────────────────────────
+
+    /**
+     * Enables persistence and network-type keys. Reads the saved file, so
+     * call it on {@link TaskScheduler.Lane#DISK}; samples recorded before it
+     * finishes are kept in memory and merged. Safe to call more than once.
+     */
+    public static void init(Context context) {
+        if (file != null) {
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        File store = new File(appContext.getFilesDir(), FILE_NAME);
+        // Read outside LOCK so recording and the stats screen never wait on disk.
+        JSONObject saved = readSaved(store);
+        synchronized (LOCK) {
+            if (file != null) {
+                return;
+            }
+            connectivity = (ConnectivityManager)
+                    appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+            if (saved != null) {
+                merge(saved);
+            }
+            file = store;
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    //  RECORDING
+    // ─────────────────────────────────────────────
+
+    static void record(String endpoint, Phase phase, long millis) {
+        if (millis < 0) {
+            return;
+        }
+        synchronized (LOCK) {
+            String key = today() + "|" + endpoint + "|" + currentNetworkType() + "|" + phase.name();
+            long[] buckets = COUNTS.get(key);
+            if (buckets == null) {
+                buckets = new long[BOUNDS_MS.length + 1];
+                COUNTS.put(key, buckets);
+            }
+            buckets[bucketOf(millis)]++;
+            scheduleFlush();
+        }
+    }
+
+    /** "api.github.com/repos", "sabbir28.atwebpages.com/login.php", … */
+    static String endpointOf(URL url) {
+        String path = url.getPath();
+        if (path == null || path.length() <= 1) {
+            return url.getHost();
+        }
+        int end = path.indexOf('/', 1);
+        return url.getHost() + (end < 0 ? path : path.substring(0, end));
+    }
+
+    // ─────────────────────────────────────────────
+    //  READING
+    // ─────────────────────────────────────────────
+
+    /**
+     * Every endpoint, network and phase, merged over the kept days.
+     */
+    public static List<Summary> summaries() {
+        Map<String, long[]> merged = new TreeMap<>();
+        synchronized (LOCK) {
+            for (Map.Entry<String, long[]> entry : COUNTS.entrySet()) {
+                String key = entry.getKey().substring(entry.getKey().indexOf('|') + 1);
+                long[] into = merged.get(key);
+                if (into == null) {
+                    into = new long[BOUNDS_MS.length + 1];
+                    merged.put(key, into);
+                }
+                for (int i = 0; i < into.length; i++) {
+                    into[i] += entry.getValue()[i];
+                }
+            }
+        }
+
+        List<Summary> summaries = new ArrayList<>(merged.size());
+        for (Map.Entry<String, long[]> entry : merged.entrySet()) {
+            String[] parts = entry.getKey().split("\\|");
+            summaries.add(new Summary("", parts[0], parts[1], Phase.valueOf(parts[2]), entry.getValue()));
+        }
+        return summaries;
+    }
+
+    /**
+     * Summaries for finished days not handed out before. Each day is
+     * returned once, so analytics gets one event per key per day instead of
+     * one per request.
+     */
+    public static List<Summary> takeUnreported() {
+        List<Summary> summaries = new ArrayList<>();
+        synchronized (LOCK) {
+            String today = today();
+            Set<String> days = new HashSet<>();
+            for (Map.Entry<String, long[]> entry : COUNTS.entrySet()) {
+                String[] parts = entry.getKey().split("\\|");
+                if (parts[0].equals(today) || REPORTED_DAYS.contains(parts[0])) {
+                    continue;
+                }
+                days.add(parts[0]);
+                summaries.add(new Summary(parts[0], parts[1], parts[2],
+                        Phase.valueOf(parts[3]), entry.getValue()));
+            }
+            if (!days.isEmpty()) {
+                REPORTED_DAYS.addAll(days);
+                scheduleFlush();
+            }
+        }
+        return summaries;
+    }
+
+    public static void clear() {
+        synchronized (LOCK) {
+            COUNTS.clear();
+            REPORTED_DAYS.clear();
+            scheduleFlush();
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    //  HISTOGRAM MATH
+    // ─────────────────────────────────────────────
+
+    private static int bucketOf(long millis) {
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            if (millis < BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS_MS.length;
+    }
+
+    private static long total(long[] buckets) {
+        long total = 0;
+        for (long count : buckets) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Interpolated within the bucket holding the quantile; the open-ended
+     * last bucket reports its lower bound.
+     */
+    private static long percentile(long[] buckets, double quantile) {
+        long total = total(buckets);
+        if (total == 0) {
+            return 0;
+        }
+
+        double rank = quantile * total;
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] == 0) {
+                continue;
+            }
+            if (seen + buckets[i] >= rank) {
+                long lower = i == 0 ? 0 : BOUNDS_MS[i - 1];
+                if (i == BOUNDS_MS.length) {
+                    return lower;
+                }
+                double within = (rank - seen) / buckets[i];
+                return lower + Math.round((BOUNDS_MS[i] - lower) * within);
+            }
+            seen += buckets[i];
+        }
+        return BOUNDS_MS[BOUNDS_MS.length - 1];
+    }
+
+    // ─────────────────────────────────────────────
+    //  NETWORK TYPE
+    // ─────────────────────────────────────────────
+
+    /** Called with {@link #LOCK} held. */
+    private static String currentNetworkType() {
+        ConnectivityManager manager = connectivity;
+        if (manager == null) {
+            return NETWORK_UNKNOWN;
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        if (now - networkTypeAt < NETWORK_TYPE_TTL_MS && networkTypeAt != 0) {
+            return networkType;
+        }
+
+        NetworkInfo info = manager.getActiveNetworkInfo();
+        if (info == null || !info.isConnected()) {
+            networkType = "none";
+        } else {
+            switch (info.getType()) {
+                case ConnectivityManager.TYPE_WIFI:
+                    networkType = "wifi";
+                    break;
+                case ConnectivityManager.TYPE_MOBILE:
+                    networkType = "cellular";
+                    break;
+                case ConnectivityManager.TYPE_ETHERNET:
+                    networkType = "ethernet";
+                    break;
+                default:
+                    networkType = "other";
+                    break;
+            }
+        }
+        networkTypeAt = now;
+        return networkType;
+    }
+
+    // ─────────────────────────────────────────────
+    //  PERSISTENCE
+    // ─────────────────────────────────────────────
+
+    /** Called with {@link #LOCK} held. */
+    private static void scheduleFlush() {
+        if (flushScheduled || file == null) {
+            return;
+        }
+        flushScheduled = true;
+        MAIN.postDelayed(() -> TaskScheduler.run(
+                TaskScheduler.Lane.DISK,
+                TaskScheduler.Priority.BACKGROUND,
+                LatencyHistograms::flush
+        ), FLUSH_DELAY_MS);
+    }
+
+    private static void flush() {
+        File target = file;
+        if (target == null) {
+            return;
+        }
+
+        byte[] bytes;
+        synchronized (LOCK) {
+            flushScheduled = false;
+            prune();
+            try {
+                JSONObject histograms = new JSONObject();
+                for (Map.Entry<String, long[]> entry : COUNTS.entrySet()) {
+                    JSONArray buckets = new JSONArray();
+                    for (long count : entry.getValue()) {
+                        buckets.put(count);
+                    }
+                    histograms.put(entry.getKey(), buckets);
+                }
+                JSONArray reported = new JSONArray();
+                for (String day : REPORTED_DAYS) {
+                    reported.put(day);
+                }
+                bytes = new JSONObject()
+                        .put("histograms", histograms)
+                        .put("reported", reported)
+                        .toString()
+                        .getBytes(StandardCharsets.UTF_8);
+            } catch (Exception e) {
+                Log.e(TAG, "Histogram encode failed", e);
+                return;
+            }
+        }
+
+        File tmpFile = new File(target.getParentFile(), target.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            Log.e(TAG, "Histogram write failed", e);
+            return;
+        }
+        if (!tmpFile.renameTo(target)) {
+            tmpFile.delete();
+            Log.w(TAG, "Histogram rename failed");
+        }
+    }
+
+    @Nullable
+    private static JSONObject readSaved(File store) {
+        if (!store.exists()) {
+            return null;
+        }
+        try {
+            return new JSONObject(readUtf8(store));
+        } catch (Exception e) {
+            Log.w(TAG, "Histogram file unreadable, starting fresh", e);
+            return null;
+        }
+    }
+
+    /** Called with {@link #LOCK} held; merges the saved file into memory. */
+    private static void merge(JSONObject root) {
+        try {
+            JSONObject histograms = root.getJSONObject("histograms");
+            Iterator<String> keys = histograms.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                JSONArray saved = histograms.getJSONArray(key);
+                long[] buckets = COUNTS.get(key);
+                if (buckets == null) {
+                    buckets = new long[BOUNDS_MS.length + 1];
+                    COUNTS.put(key, buckets);
+                }
+                for (int i = 0; i < buckets.length && i < saved.length(); i++) {
+                    buckets[i] += saved.getLong(i);
+                }
+            }
+            JSONArray reported = root.optJSONArray("reported");
+            if (reported != null) {
+                for (int i = 0; i < reported.length(); i++) {
+                    REPORTED_DAYS.add(reported.getString(i));
+                }
+            }
+            prune();
+        } catch (Exception e) {
+            Log.w(TAG, "Histogram file unreadable, starting fresh", e);
+        }
+    }
+
+    /** Drops days older than {@link #KEEP_DAYS}. Called with {@link #LOCK} held. */
+    private static void prune() {
+        String oldest = dayOf(System.currentTimeMillis() - (KEEP_DAYS - 1) * 86_400_000L);
+        Iterator<String> keys = COUNTS.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().compareTo(oldest) < 0) {
+                keys.remove();
+            }
+        }
+        Iterator<String> days = REPORTED_DAYS.iterator();
+        while (days.hasNext()) {
+            if (days.next().compareTo(oldest) < 0) {
+                days.remove();
+            }
+        }
+    }
+
+    /** Re-read at most once a minute; called with {@link #LOCK} held. */
+    private static String today() {
+        long now = SystemClock.elapsedRealtime();
+        if (day == null || now - dayAt > 60_000L) {
+            day = dayOf(System.currentTimeMillis());
+            dayAt = now;
+        }
+        return day;
+    }
+
+    /** "20261018"; sorts chronologically as a string. */
+    private static String dayOf(long millis) {
+        return new SimpleDateFormat("yyyyMMdd", Locale.US).format(new Date(millis));
+    }
+
+    private static String readUtf8(File source) throws IOException {
+        byte[] bytes = new byte[(int) source.length()];
+        try (InputStream in = new FileInputStream(source)) {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = in.read(bytes, offset, bytes.length - offset);
+                if (read == -1) {
+                    throw new IOException("Histogram file truncated");
+                }
+                offset += read;
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,134 @@
+package com.atwebpages.sabbir28.Core;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RequestCoalescer collapses identical concurrent requests into one.
+ * <p>
+ * Requests are keyed by method + URL. The first caller runs the fetch on its
+ * own thread; callers that arrive while it is in flight block on the same
+ * result instead of opening another connection. A successful result is then
+ * reused for {@code ttlMs}, so a burst of activity recreations (rotation,
+ * returning from another screen) costs one request. Failures are never reused.
+ * <p>
+ * Only use this for idempotent requests (GET/HEAD).
+ */
+public final class RequestCoalescer<T> {
+
+    private static final String TAG = "RequestCoalescer";
+
+    public interface Fetch<T> {
+        T fetch() throws Exception;
+    }
+
+    private final long ttlMs;
+    private final Map<String, Flight<T>> flights = new HashMap<>();
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    public RequestCoalescer(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    public T execute(String method, String url, Fetch<T> fetch) throws Exception {
+        String key = method + " " + url;
+        Flight<T> flight;
+        boolean owner = false;
+
+        synchronized (flights) {
+            evictExpired();
+            flight = flights.get(key);
+            if (flight == null) {
+                flight = new Flight<>(fetch);
+                flights.put(key, flight);
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            executed.incrementAndGet();
+            flight.task.run();
+        } else if (flight.task.isDone()) {
+            reused.incrementAndGet();
+            Log.d(TAG, "Reused recent result: " + key);
+        } else {
+            joined.incrementAndGet();
+            Log.d(TAG, "Joined in-flight request: " + key);
+        }
+
+        try {
+            return flight.task.get();
+        } catch (ExecutionException e) {
+            synchronized (flights) {
+                if (flights.get(key) == flight) {
+                    flights.remove(key);
+                }
+            }
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    /** Drops every finished result so the next call goes to the network. */
+    public void clear() {
+        synchronized (flights) {
+            Iterator<Flight<T>> it = flights.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().task.isDone()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /** Requests that actually went to the network. */
+    public long executedCount() {
+        return executed.get();
+    }
+
+    /** Requests that waited on an identical in-flight request. */
+    public long joinedCount() {
+        return joined.get();
+    }
+
+    /** Requests answered from a result younger than the TTL. */
+    public long reusedCount() {
+        return reused.get();
+    }
+
+    private void evictExpired() {
+        long now = SystemClock.elapsedRealtime();
+        Iterator<Flight<T>> it = flights.values().iterator();
+        while (it.hasNext()) {
+            Flight<T> flight = it.next();
+            if (flight.completedAt != 0 && now - flight.completedAt >= ttlMs) {
+                it.remove();
+            }
+        }
+    }
+
+    private static final class Flight<T> {
+
+        final FutureTask<T> task;
+        volatile long completedAt;
+
+        Flight(Fetch<T> fetch) {
+            task = new FutureTask<T>(fetch::fetch) {
+                @Override
+                protected void done() {
+                    completedAt = SystemClock.elapsedRealtime();
+                }
+            };
+        }
+    }
+}
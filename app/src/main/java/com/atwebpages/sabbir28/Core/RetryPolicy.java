@@ -0,0 +1,201 @@
+package com.atwebpages.sabbir28.Core;
+
+import androidx.annotation.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * RetryPolicy decides whether a failed attempt is tried again and how long
+ * to wait first.
+ * <p>
+ * Delays use exponential backoff with full jitter: attempt {@code n} sleeps a
+ * uniformly random time in {@code [0, min(max, base * 2^n))}. When every
+ * device on campus loses the server at once, jitter spreads their retries out
+ * instead of landing them on the host in synchronized waves.
+ * <p>
+ * Retries are also limited by a per-host budget (a token bucket refilled by a
+ * fraction of each request), so a host that is failing everything sees at
+ * most a small multiple of its normal traffic.
+ * <p>
+ * GET requests default to {@link #IDEMPOTENT}; POST defaults to {@link #NONE}
+ * since a login or upload that timed out may already have been applied.
+ */
+public final class RetryPolicy {
+
+    /** One attempt, never retried. */
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0L, 0L);
+
+    /** Three attempts, 0.5 s base, 8 s cap. */
+    public static final RetryPolicy IDEMPOTENT = new RetryPolicy(3, 500L, 8_000L);
+
+    private static final double BUDGET_MAX_TOKENS = 10.0;
+    private static final double BUDGET_TOKENS_PER_REQUEST = 0.1;
+
+    private static final Map<String, Budget> BUDGETS = new ConcurrentHashMap<>();
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    // ─────────────────────────────────────────────
+    //  DECISIONS
+    // ─────────────────────────────────────────────
+
+    /**
+     * @param attempt the attempt that just failed, starting at 1
+     */
+    boolean shouldRetry(int attempt, IOException failure) {
+        return attempt < maxAttempts && isTransient(failure);
+    }
+
+    /**
+     * @param attempt the attempt that just failed, starting at 1
+     */
+    boolean shouldRetry(int attempt, int statusCode) {
+        return attempt < maxAttempts && isTransient(statusCode);
+    }
+
+    /**
+     * Full-jitter delay before the next attempt. A server-supplied
+     * Retry-After (in seconds) takes precedence when present and sane.
+     *
+     * @return the delay, or -1 when Retry-After asks for longer than this
+     *         policy's max delay: the sleep would hold a lane thread (and
+     *         often a user) hostage, so the caller gets the response now
+     */
+    long backoffMs(int attempt, @Nullable String retryAfter) {
+        if (retryAfter != null) {
+            try {
+                long seconds = Long.parseLong(retryAfter.trim());
+                if (seconds >= 0) {
+                    long millis = seconds * 1000L;
+                    return millis <= maxDelayMs ? millis : -1L;
+                }
+            } catch (NumberFormatException ignored) {
+                // HTTP-date form; fall through to our own backoff
+            }
+        }
+
+        long ceiling = baseDelayMs << Math.min(attempt, 16);
+        if (ceiling <= 0 || ceiling > maxDelayMs) {
+            ceiling = maxDelayMs;
+        }
+        return ceiling <= 0 ? 0L : ThreadLocalRandom.current().nextLong(ceiling);
+    }
+
+    static boolean isTransient(int statusCode) {
+        switch (statusCode) {
+            case 408: // Request Timeout
+            case 429: // Too Many Requests
+            case 500:
+            case 502:
+            case 503:
+            case 504:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Only timeouts, refused or unroutable connects and connections dropped
+     * mid-exchange are worth another attempt. Everything else (TLS handshake
+     * or certificate failures, protocol errors, no DNS, an open circuit, an
+     * interrupt) fails the same way again.
+     */
+    static boolean isTransient(IOException failure) {
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        if (failure instanceof SocketTimeoutException
+                || failure instanceof ConnectException
+                || failure instanceof NoRouteToHostException
+                || failure instanceof EOFException) {
+            return true;
+        }
+        return isConnectionDropped(failure);
+    }
+
+    /**
+     * A reset or half-closed connection, typically a pooled keep-alive
+     * socket the server already closed. The platform reports these as a
+     * {@link SocketException}, or a bare {@link IOException} for "unexpected
+     * end of stream", told apart only by message.
+     */
+    private static boolean isConnectionDropped(IOException failure) {
+        String message = failure.getMessage();
+        if (message == null) {
+            return false;
+        }
+        message = message.toLowerCase(Locale.ROOT);
+        if (failure instanceof SocketException) {
+            return message.contains("reset")
+                    || message.contains("broken pipe")
+                    || message.contains("end of stream");
+        }
+        return failure.getClass() == IOException.class
+                && message.contains("unexpected end of stream");
+    }
+
+    // ─────────────────────────────────────────────
+    //  RETRY BUDGET
+    // ─────────────────────────────────────────────
+
+    /** Credits the host's budget for a first attempt. */
+    static void recordRequest(String host) {
+        budgetFor(host).deposit();
+    }
+
+    /** Takes one retry from the host's budget, or returns false when spent. */
+    static boolean tryAcquireRetry(String host) {
+        return budgetFor(host).withdraw();
+    }
+
+    private static Budget budgetFor(String host) {
+        Budget budget = BUDGETS.get(host);
+        if (budget == null) {
+            Budget created = new Budget();
+            budget = BUDGETS.putIfAbsent(host, created);
+            if (budget == null) {
+                budget = created;
+            }
+        }
+        return budget;
+    }
+
+    private static final class Budget {
+
+        private double tokens = BUDGET_MAX_TOKENS / 2;
+
+        synchronized void deposit() {
+            tokens = Math.min(BUDGET_MAX_TOKENS, tokens + BUDGET_TOKENS_PER_REQUEST);
+        }
+
+        synchronized boolean withdraw() {
+            if (tokens < 1.0) {
+                return false;
+            }
+            tokens -= 1.0;
+            return true;
+        }
+    }
+}
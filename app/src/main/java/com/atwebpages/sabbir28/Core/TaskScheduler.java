@@ -0,0 +1,340 @@
+package com.atwebpages.sabbir28.Core;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TaskScheduler is the single place background work runs in the app.
+ * <p>
+ * Work is split into lanes so a slow download never holds up a disk read:
+ * <ul>
+ *     <li><b>NETWORK</b> — HTTP calls (bounded like {@link HttpEngine}'s per-host permits)</li>
+ *     <li><b>DISK</b> — file and SharedPreferences I/O, snapshot reads</li>
+ *     <li><b>CPU</b> — parsing, hashing, layout precomputation</li>
+ *     <li><b>TRANSFER</b> — minutes-long downloads (APK updates), kept off
+ *         NETWORK so they never hold one of its threads</li>
+ * </ul>
+ * Within a lane, queued tasks run by {@link Priority} and then in submission
+ * order, so a screen waiting on its data jumps ahead of an update check.
+ * Each task also runs at its priority's thread priority: only
+ * {@link Priority#BACKGROUND} work yields the CPU to the rest of the app.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * TaskScheduler.Handle<String> handle = TaskScheduler.submit(
+ *         TaskScheduler.Lane.NETWORK,
+ *         TaskScheduler.Priority.USER_VISIBLE,
+ *         () -> HTTP.get(url).body,
+ *         body -> textView.setText(body));   // delivered on the main thread
+ *
+ * handle.cancel(true);                      // e.g. from onDestroy()
+ * }</pre>
+ */
+public final class TaskScheduler {
+
+    private static final String TAG = "TaskScheduler";
+
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private TaskScheduler() {
+        // utility class
+    }
+
+    public enum Lane {
+        NETWORK(4),
+        DISK(2),
+        CPU(Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1))),
+        TRANSFER(1);
+
+        final ThreadPoolExecutor executor;
+
+        Lane(int threads) {
+            executor = new ThreadPoolExecutor(
+                    threads,
+                    threads,
+                    KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS,
+                    new PriorityBlockingQueue<Runnable>(),
+                    new LaneThreadFactory(name().toLowerCase(Locale.ROOT))
+            );
+            executor.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /** Lower ordinal runs first. */
+    public enum Priority {
+        /** Something on screen is blank until this finishes. */
+        IMMEDIATE(Process.THREAD_PRIORITY_DEFAULT),
+        /** The user asked for it and is waiting, but can see a spinner. */
+        USER_VISIBLE(Process.THREAD_PRIORITY_DEFAULT),
+        /** Update checks, prefetch, housekeeping. */
+        BACKGROUND(Process.THREAD_PRIORITY_BACKGROUND);
+
+        final int threadPriority;
+
+        Priority(int threadPriority) {
+            this.threadPriority = threadPriority;
+        }
+    }
+
+    public interface Task<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Main-thread result delivery. Not called once the handle is cancelled.
+     */
+    public interface Callback<T> {
+        void onSuccess(T result);
+
+        default void onError(@NonNull Exception e) {
+            Log.e(TAG, "Background task failed", e);
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    //  SUBMISSION
+    // ─────────────────────────────────────────────
+
+    public static <T> Handle<T> submit(
+            Lane lane,
+            Priority priority,
+            Task<T> task,
+            @Nullable Callback<T> callback
+    ) {
+        Handle<T> handle = new Handle<>(task::run, priority, callback);
+        lane.executor.execute(handle);
+        return handle;
+    }
+
+    public static Handle<Void> run(Lane lane, Priority priority, Runnable runnable) {
+        Handle<Void> handle = new Handle<>(() -> {
+            runnable.run();
+            return null;
+        }, priority, null);
+        lane.executor.execute(handle);
+        return handle;
+    }
+
+    /**
+     * An executor that runs its tasks one at a time, in order, on {@code lane}.
+     * Used where work must not interleave (e.g. routine sync and promote).
+     */
+    public static Executor serial(Lane lane, Priority priority) {
+        return new SerialExecutor(lane, priority);
+    }
+
+    /**
+     * Runs {@code jobs} with at most {@code parallelism} in flight and blocks
+     * until every job has finished. The calling thread works through the
+     * list as well, so calling this from a thread of {@code lane} (e.g. a
+     * {@link #serial} executor) cannot starve itself.
+     * <p>
+     * A job that throws is logged; the others still run.
+     *
+     * @throws InterruptedException if interrupted while waiting; jobs not yet
+     *                              started are skipped
+     */
+    public static void runBounded(
+            Lane lane,
+            Priority priority,
+            int parallelism,
+            List<? extends Runnable> jobs
+    ) throws InterruptedException {
+        int count = jobs.size();
+        if (count == 0) {
+            return;
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(count);
+
+        Runnable worker = () -> {
+            int index;
+            while ((index = next.getAndIncrement()) < count) {
+                try {
+                    jobs.get(index).run();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Bounded job failed", e);
+                } finally {
+                    finished.countDown();
+                }
+            }
+        };
+
+        int helpers = Math.min(Math.max(1, parallelism), count) - 1;
+        for (int i = 0; i < helpers; i++) {
+            run(lane, priority, worker);
+        }
+        worker.run();
+
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            // Stop handing out jobs; ones already running finish on their own.
+            next.set(count);
+            throw e;
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    //  HANDLE
+    // ─────────────────────────────────────────────
+
+    /**
+     * A cancellable future whose completion is posted to the main thread.
+     */
+    public static final class Handle<T> extends FutureTask<T> implements Comparable<Handle<?>> {
+
+        private final Priority priority;
+        private final long sequence = SEQUENCE.getAndIncrement();
+        @Nullable
+        private final Callback<T> callback;
+
+        private volatile boolean detached;
+
+        Handle(Callable<T> callable, Priority priority, @Nullable Callback<T> callback) {
+            super(callable);
+            this.priority = priority;
+            this.callback = callback;
+        }
+
+        /**
+         * Cancels the task and drops any result that is already on its way
+         * to the main thread.
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            detached = true;
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public void run() {
+            Process.setThreadPriority(priority.threadPriority);
+            super.run();
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                return;
+            }
+
+            T result;
+            try {
+                result = get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                Exception error = cause instanceof Exception
+                        ? (Exception) cause
+                        : new RuntimeException(cause);
+                if (callback == null) {
+                    Log.e(TAG, "Background task failed", error);
+                    return;
+                }
+                MAIN.post(() -> {
+                    if (!detached) callback.onError(error);
+                });
+                return;
+            } catch (InterruptedException | CancellationException e) {
+                return;
+            }
+
+            if (callback == null) {
+                return;
+            }
+            MAIN.post(() -> {
+                if (!detached) callback.onSuccess(result);
+            });
+        }
+
+        @Override
+        public int compareTo(Handle<?> other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    //  INTERNALS
+    // ─────────────────────────────────────────────
+
+    private static final class SerialExecutor implements Executor {
+
+        private final Lane lane;
+        private final Priority priority;
+        private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        private boolean active;
+
+        SerialExecutor(Lane lane, Priority priority) {
+            this.lane = lane;
+            this.priority = priority;
+        }
+
+        @Override
+        public synchronized void execute(@NonNull Runnable command) {
+            queue.offer(() -> {
+                try {
+                    command.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (!active) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            Runnable next = queue.poll();
+            active = next != null;
+            if (next != null) {
+                run(lane, priority, next);
+            }
+        }
+    }
+
+    private static final class LaneThreadFactory implements ThreadFactory {
+
+        private final String lane;
+        private final AtomicInteger count = new AtomicInteger();
+
+        LaneThreadFactory(String lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(() -> {
+                // Each Handle then switches to its own Priority's level.
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "gbc-" + lane + "-" + count.incrementAndGet());
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package com.atwebpages.sabbir28.Server.EditProfile;
 
-import android.os.Handler;
-import android.os.Looper;
 import com.atwebpages.sabbir28.Core.HTTP;
+import com.atwebpages.sabbir28.Core.TaskScheduler;
 
 import java.io.File;
 import java.util.HashMap;
@@ -20,7 +19,7 @@ public class EditProfile {
     private static final String EDIT_URL = "http://sabbir28.atwebpages.com/bmc/index.php?action=edit";
 
     /**
-     * Update profile asynchronously using AsyncTask
+     * Update profile on the shared network lane ({@link TaskScheduler})
      *
      * @param token      User token
      * @param name       Optional name
@@ -37,33 +36,23 @@ public class EditProfile {
                                  String classRoll, String regNo, String year, String section,
                                  File imageFile, Callback callback) {
 
-        new android.os.AsyncTask<Void, Void, HTTP.Response>() {
-            @Override
-            protected HTTP.Response doInBackground(Void... voids) {
-                return sendEdit(token, name, email, phone, classRoll, regNo, year, section, imageFile);
-            }
-
-            @Override
-            protected void onPostExecute(HTTP.Response response) {
-                if (callback != null) callback.onResponse(response.code, response.body);
-            }
-        }.execute();
+        TaskScheduler.submit(
+                TaskScheduler.Lane.NETWORK,
+                TaskScheduler.Priority.USER_VISIBLE,
+                () -> sendEdit(token, name, email, phone, classRoll, regNo, year, section, imageFile),
+                response -> {
+                    if (callback != null) callback.onResponse(response.code, response.body);
+                });
     }
 
     /**
-     * Update profile asynchronously using Thread+Handler
+     * Same as {@link #editAsync}; kept for existing callers
      */
     public static void editThread(String token, String name, String email, String phone,
                                   String classRoll, String regNo, String year, String section,
                                   File imageFile, Callback callback) {
 
-        Handler mainHandler = new Handler(Looper.getMainLooper());
-        new Thread(() -> {
-            HTTP.Response response = sendEdit(token, name, email, phone, classRoll, regNo, year, section, imageFile);
-            mainHandler.post(() -> {
-                if (callback != null) callback.onResponse(response.code, response.body);
-            });
-        }).start();
+        editAsync(token, name, email, phone, classRoll, regNo, year, section, imageFile, callback);
     }
 
     /**
@@ -1,8 +1,7 @@
 package com.atwebpages.sabbir28.Server.Login;
 
-import android.os.Handler;
-import android.os.Looper;
 import com.atwebpages.sabbir28.Core.HTTP;
+import com.atwebpages.sabbir28.Core.TaskScheduler;
 
 
 /**
@@ -17,42 +16,31 @@ public class Login {
     private static final String LOGIN_URL = "http://sabbir28.atwebpages.com/bmc/index.php?action=login";
 
     /**
-     * Send login request asynchronously using AsyncTask
+     * Send login request on the shared network lane ({@link TaskScheduler})
      *
      * @param email    User email
      * @param password User password
      * @param callback Callback to handle server response
      */
     public static void loginAsync(String email, String password, Callback callback) {
-        new android.os.AsyncTask<Void, Void, HTTP.Response>() {
-            @Override
-            protected HTTP.Response doInBackground(Void... voids) {
-                return sendLogin(email, password);
-            }
-
-            @Override
-            protected void onPostExecute(HTTP.Response response) {
-                if (callback != null) callback.onResponse(response.code, response.body);
-            }
-        }.execute();
+        TaskScheduler.submit(
+                TaskScheduler.Lane.NETWORK,
+                TaskScheduler.Priority.USER_VISIBLE,
+                () -> sendLogin(email, password),
+                response -> {
+                    if (callback != null) callback.onResponse(response.code, response.body);
+                });
     }
 
     /**
-     * Send login request asynchronously using Thread + Handler
+     * Same as {@link #loginAsync}; kept for existing callers
      *
      * @param email    User email
      * @param password User password
      * @param callback Callback to handle server response
      */
     public static void loginThread(String email, String password, Callback callback) {
-        Handler mainHandler = new Handler(Looper.getMainLooper());
-
-        new Thread(() -> {
-            HTTP.Response response = sendLogin(email, password);
-            mainHandler.post(() -> {
-                if (callback != null) callback.onResponse(response.code, response.body);
-            });
-        }).start();
+        loginAsync(email, password, callback);
     }
 
     /**
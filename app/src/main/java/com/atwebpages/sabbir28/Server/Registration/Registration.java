@@ -1,8 +1,7 @@
 package com.atwebpages.sabbir28.Server.Registration;
 
-import android.os.Handler;
-import android.os.Looper;
 import com.atwebpages.sabbir28.Core.HTTP;
+import com.atwebpages.sabbir28.Core.TaskScheduler;
 
 import java.io.File;
 import java.util.HashMap;
@@ -17,7 +16,7 @@ public class Registration {
     private static final String REGISTER_URL = "http://sabbir28.atwebpages.com/bmc/index.php?action=register";
 
     /**
-     * Send registration data to server
+     * Send registration data to server on the shared network lane ({@link TaskScheduler})
      *
      * @param name       Student name
      * @param email      Student email
@@ -35,45 +34,23 @@ public class Registration {
                                      String year, String section, File imageFile,
                                      Callback callback) {
 
-        new android.os.AsyncTask<Void, Void, HTTP.Response>() {
-            @Override
-            protected HTTP.Response doInBackground(Void... voids) {
-                return sendRegistration(name, email, password, phone, classRoll, regNo, year, section, imageFile);
-            }
-
-            @Override
-            protected void onPostExecute(HTTP.Response response) {
-                if (callback != null) callback.onResponse(response.code, response.body);
-            }
-        }.execute();
+        TaskScheduler.submit(
+                TaskScheduler.Lane.NETWORK,
+                TaskScheduler.Priority.USER_VISIBLE,
+                () -> sendRegistration(name, email, password, phone, classRoll, regNo, year, section, imageFile),
+                response -> {
+                    if (callback != null) callback.onResponse(response.code, response.body);
+                });
     }
 
     /**
-     * Send registration data to server
-     *
-     * @param name       Student name
-     * @param email      Student email
-     * @param password   Password
-     * @param phone      Phone number
-     * @param classRoll  Class roll
-     * @param regNo      Registration number
-     * @param year       Year (e.g., "1st")
-     * @param section    Section (A/B/C)
-     * @param imageFile  Image file (profile photo)
-     * @param callback   Callback to handle server response
+     * Same as {@link #registerAsync}; kept for existing callers
      */
     public static void registerThread(String name, String email, String password,
                                       String phone, String classRoll, String regNo,
                                       String year, String section, File imageFile,
                                       Callback callback) {
-        Handler mainHandler = new Handler(Looper.getMainLooper());
-
-        new Thread(() -> {
-            HTTP.Response response = sendRegistration(name, email, password, phone, classRoll, regNo, year, section, imageFile);
-            mainHandler.post(() -> {
-                if (callback != null) callback.onResponse(response.code, response.body);
-            });
-        }).start();
+        registerAsync(name, email, password, phone, classRoll, regNo, year, section, imageFile, callback);
     }
 
     /**
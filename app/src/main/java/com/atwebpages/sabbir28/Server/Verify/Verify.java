@@ -1,8 +1,7 @@
 package com.atwebpages.sabbir28.Server.Verify;
 
-import android.os.Handler;
-import android.os.Looper;
 import com.atwebpages.sabbir28.Core.HTTP;
+import com.atwebpages.sabbir28.Core.TaskScheduler;
 
 /**
  * Handles verify requests to the server using token
@@ -16,40 +15,29 @@ public class Verify {
     private static final String VERIFY_URL = "http://sabbir28.atwebpages.com/bmc/index.php?action=verify&token=";
 
     /**
-     * Verify token asynchronously using AsyncTask
+     * Verify token on the shared network lane ({@link TaskScheduler})
      *
      * @param token    Token received after login
      * @param callback Callback to handle server response
      */
     public static void verifyAsync(String token, Callback callback) {
-        new android.os.AsyncTask<Void, Void, HTTP.Response>() {
-            @Override
-            protected HTTP.Response doInBackground(Void... voids) {
-                return sendVerify(token);
-            }
-
-            @Override
-            protected void onPostExecute(HTTP.Response response) {
-                if (callback != null) callback.onResponse(response.code, response.body);
-            }
-        }.execute();
+        TaskScheduler.submit(
+                TaskScheduler.Lane.NETWORK,
+                TaskScheduler.Priority.USER_VISIBLE,
+                () -> sendVerify(token),
+                response -> {
+                    if (callback != null) callback.onResponse(response.code, response.body);
+                });
     }
 
     /**
-     * Verify token asynchronously using Thread + Handler
+     * Same as {@link #verifyAsync}; kept for existing callers
      *
      * @param token    Token received after login
      * @param callback Callback to handle server response
      */
     public static void verifyThread(String token, Callback callback) {
-        Handler mainHandler = new Handler(Looper.getMainLooper());
-
-        new Thread(() -> {
-            HTTP.Response response = sendVerify(token);
-            mainHandler.post(() -> {
-                if (callback != null) callback.onResponse(response.code, response.body);
-            });
-        }).start();
+        verifyAsync(token, callback);
     }
 
     /**
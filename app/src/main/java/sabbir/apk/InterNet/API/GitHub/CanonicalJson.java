@@ -0,0 +1,180 @@
+package sabbir.apk.InterNet.API.GitHub;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Canonical JSON: one byte sequence per JSON value, however the file that
+ * held it was formatted. It reproduces exactly what the publisher hashes
+ * for {@link RoutinePatcher}, Python's
+ * <pre>{@code
+ * json.dumps(doc, sort_keys=True, separators=(",", ":"), ensure_ascii=False).encode("utf-8")
+ * }</pre>
+ * <ul>
+ *   <li>UTF-8, no whitespace outside strings</li>
+ *   <li>object members sorted by key, comparing Unicode code points</li>
+ *   <li>strings escape only {@code "}, {@code \}, and U+0000–U+001F, the
+ *       latter as {@code \b \t \n \f \r} or else {@code \}{@code u00xx}
+ *       in lowercase hex</li>
+ *   <li>integers in plain decimal</li>
+ *   <li>{@code true}, {@code false}, {@code null} as literals</li>
+ * </ul>
+ * Python prints floats with its own repr, which this does not reproduce;
+ * a document holding a non-integer number throws {@link NotCanonicalException}.
+ */
+final class CanonicalJson {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** Python's sort_keys order; String.compareTo would compare UTF-16 units. */
+    private static final Comparator<String> CODE_POINT_ORDER = new Comparator<String>() {
+        @Override
+        public int compare(String a, String b) {
+            int i = 0;
+            int j = 0;
+            while (i < a.length() && j < b.length()) {
+                int ca = a.codePointAt(i);
+                int cb = b.codePointAt(j);
+                if (ca != cb) {
+                    return ca < cb ? -1 : 1;
+                }
+                i += Character.charCount(ca);
+                j += Character.charCount(cb);
+            }
+            return (a.length() - i) - (b.length() - j);
+        }
+    };
+
+    /** The value has no canonical form, e.g. a fractional number. */
+    static final class NotCanonicalException extends JSONException {
+        NotCanonicalException(String message) {
+            super(message);
+        }
+    }
+
+    private CanonicalJson() {
+        // utility class
+    }
+
+    static byte[] encode(Object value) throws JSONException {
+        StringBuilder out = new StringBuilder(4096);
+        write(value, out);
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return lowercase hex SHA-256 of {@code canonical}
+     */
+    static String sha256(byte[] canonical) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(canonical);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static void write(Object value, StringBuilder out) throws JSONException {
+        if (value == null || value == JSONObject.NULL) {
+            out.append("null");
+        } else if (value instanceof JSONObject) {
+            writeObject((JSONObject) value, out);
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            out.append('[');
+            for (int i = 0; i < array.length(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                write(array.get(i), out);
+            }
+            out.append(']');
+        } else if (value instanceof String) {
+            writeString((String) value, out);
+        } else if (value instanceof Boolean) {
+            out.append(value.toString());
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte
+                || value instanceof BigInteger) {
+            out.append(value.toString());
+        } else {
+            throw new NotCanonicalException("No canonical form for "
+                    + value.getClass().getSimpleName() + " " + value);
+        }
+    }
+
+    private static void writeObject(JSONObject object, StringBuilder out) throws JSONException {
+        List<String> keys = new ArrayList<>(object.length());
+        Iterator<String> it = object.keys();
+        while (it.hasNext()) {
+            keys.add(it.next());
+        }
+        Collections.sort(keys, CODE_POINT_ORDER);
+
+        out.append('{');
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            String key = keys.get(i);
+            writeString(key, out);
+            out.append(':');
+            write(object.get(key), out);
+        }
+        out.append('}');
+    }
+
+    private static void writeString(String value, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,526 @@
+package sabbir.apk.InterNet.API.GitHub;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.atwebpages.sabbir28.Core.HttpEngine;
+import com.atwebpages.sabbir28.Core.TaskScheduler;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URLEncoder;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DirectorySync
+ *
+ * Accountability:
+ * - Mirror every file of a published folder (e.g. /BMC: per-section
+ *   routines, exam schedules), not just the routine
+ * - Detect changes with one conditional head-commit check and, when it
+ *   moved, one recursive tree listing; fall back to per-folder contents
+ *   listings if the tree is truncated or unavailable
+ * - Diff each listed blob SHA against the local {@link MirrorManifest};
+ *   download only what changed, a few files at a time
+ * - Verify every download against its git blob SHA
+ * - Publish the new folder state with one manifest commit; until then
+ *   readers keep seeing the previous state
+ *
+ * routine.json is not mirrored here: it has its own fast path, validation
+ * and compiled snapshot in {@link RoutineManagerApi}.
+ *
+ * Storage:
+ * /data/data/<package>/files/github_cache/
+ *  ├── manifest.json   (repo path → blob SHA)
+ *  └── objects/<sha>   (verified file contents; shared with {@link RoutineStore})
+ */
+public final class DirectorySync {
+
+    private static final String TAG = "DirectorySync";
+
+    private static final String MANIFEST_FILE = "manifest.json";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    /** Makes GET /commits/{ref} answer with the bare 40-character SHA. */
+    private static final String SHA_MEDIA_TYPE = "application/vnd.github.sha";
+
+    /** Concurrent downloads per sync; leaves NETWORK lane threads for the UI. */
+    private static final int MAX_PARALLEL_DOWNLOADS = 3;
+
+    /** Folder nesting followed below the synced folder (one listing per folder). */
+    private static final int MAX_DEPTH = 3;
+
+    private static final Object MANIFEST_LOCK = new Object();
+
+    private DirectorySync() {
+        // utility class
+    }
+
+    public static final class Result {
+
+        public final boolean success;
+        public final String detail;
+        public final int downloaded;
+        public final int removed;
+        public final long totalMs;
+
+        Result(boolean success, String detail, int downloaded, int removed, long totalMs) {
+            this.success = success;
+            this.detail = detail;
+            this.downloaded = downloaded;
+            this.removed = removed;
+            this.totalMs = totalMs;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return detail
+                    + " downloaded=" + downloaded
+                    + " removed=" + removed
+                    + " total=" + totalMs + "ms";
+        }
+    }
+
+    /* =========================
+       Public API
+       ========================= */
+
+    /**
+     * @param path repo path, e.g. "BMC/exam.json"
+     * @return the mirrored file, or null if not (yet) mirrored
+     */
+    @Nullable
+    public static File getFile(Context context, String path) {
+        MirrorManifest.Entry entry = loadManifest(context).get(path);
+        if (entry == null) {
+            return null;
+        }
+
+        File object = new File(objectsDir(context), entry.sha);
+        return object.exists() ? object : null;
+    }
+
+    /**
+     * @return every mirrored repo path, sorted
+     */
+    public static Set<String> listPaths(Context context) {
+        return loadManifest(context).files().keySet();
+    }
+
+    /** True while a mirrored file's content is the blob {@code sha}. */
+    static boolean isReferenced(Context context, String sha) {
+        return loadManifest(context).containsSha(sha);
+    }
+
+    /* =========================
+       Sync
+       ========================= */
+
+    /**
+     * Contents strategy: one listing per folder. Works for any repo, but
+     * costs a request per folder even when nothing changed.
+     * Blocking; runs on the NETWORK lane via {@link RoutineSyncPipeline#mirrorFolder},
+     * outside the routine serializer.
+     *
+     * @param folder  repo folder to mirror, e.g. "BMC"
+     * @param exclude repo paths owned elsewhere (the routine)
+     */
+    static Result syncBlocking(
+            Context context,
+            String owner,
+            String repo,
+            String folder,
+            Set<String> exclude
+    ) {
+        long start = SystemClock.elapsedRealtime();
+
+        Map<String, RemoteFile> remote = new TreeMap<>();
+        try {
+            listRemote(owner, repo, folder, 0, exclude, remote);
+        } catch (Exception e) {
+            Log.e(TAG, "Listing " + folder + " failed", e);
+            return new Result(false, "listing_fail", 0, 0, elapsed(start));
+        }
+
+        return apply(context, Collections.singletonList(folder), null, remote, start);
+    }
+
+    /**
+     * Trees strategy: one conditional request for the head commit SHA (a
+     * 304, unbilled, when nothing was pushed); only when it moved, one
+     * recursive tree listing covering every mirrored folder at once.
+     * Blocking; runs on the NETWORK lane via {@link RoutineSyncPipeline#mirrorFolder},
+     * outside the routine serializer.
+     *
+     * @param folders repo folders to mirror, e.g. ["BMC"]
+     * @param exclude repo paths owned elsewhere (the routine)
+     * @return the outcome, or null when the tree is unavailable or truncated
+     *         and {@link #syncBlocking} should be used per folder instead
+     */
+    @Nullable
+    static Result syncTreeBlocking(
+            Context context,
+            String owner,
+            String repo,
+            List<String> folders,
+            Set<String> exclude
+    ) {
+        long start = SystemClock.elapsedRealtime();
+        String base = "/repos/" + owner + "/" + repo;
+
+        String head;
+        try {
+            head = GitHubClient.get(base + "/commits/HEAD", null, true, SHA_MEDIA_TYPE).trim();
+        } catch (Exception e) {
+            Log.w(TAG, "Head lookup failed", e);
+            return null;
+        }
+        if (!isCommitSha(head)) {
+            Log.w(TAG, "Unexpected head response, using contents listings");
+            return null;
+        }
+
+        MirrorManifest current = loadManifest(context);
+        if (head.equals(current.head()) && objectsPresent(context, current, folders)) {
+            return new Result(true, "mirror_current", 0, 0, elapsed(start));
+        }
+
+        Map<String, RemoteFile> remote = new TreeMap<>();
+        try {
+            // Keyed by commit SHA, so the cached response never goes stale.
+            JSONObject tree = new JSONObject(
+                    GitHubClient.get(base + "/git/trees/" + head + "?recursive=1", null, true)
+            );
+            JSONArray entries = tree.optJSONArray("tree");
+            if (entries == null || tree.optBoolean("truncated", false)) {
+                Log.i(TAG, "Tree truncated or missing, using contents listings");
+                return null;
+            }
+
+            for (int i = 0; i < entries.length(); i++) {
+                JSONObject entry = entries.getJSONObject(i);
+                String path = entry.optString("path", "");
+                if (!"blob".equals(entry.optString("type"))
+                        || !underAny(path, folders)
+                        || exclude.contains(path)) {
+                    continue;
+                }
+
+                String sha = entry.optString("sha", "");
+                if (!sha.isEmpty()) {
+                    // Raw URLs pinned to the commit are immutable on the CDN.
+                    String rawUrl = RoutineSyncPipeline.RAW_BASE + "/" + owner + "/" + repo
+                            + "/" + head + "/" + encodePath(path);
+                    remote.put(path, new RemoteFile(path, sha, entry.optLong("size", -1), rawUrl));
+                }
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Tree listing failed", e);
+            return null;
+        }
+
+        return apply(context, folders, head, remote, start);
+    }
+
+    /**
+     * Downloads what {@code remote} has that the manifest lacks, then
+     * commits the folders' new state in one manifest swap.
+     *
+     * @param head the commit {@code remote} was listed from, or null if unknown
+     */
+    private static Result apply(
+            Context context,
+            List<String> folders,
+            @Nullable String head,
+            Map<String, RemoteFile> remote,
+            long start
+    ) {
+        File objects = objectsDir(context);
+        MirrorManifest current = loadManifest(context);
+
+        boolean dirty = head == null
+                ? current.head() != null
+                : !head.equals(current.head());
+        List<RemoteFile> changed = new ArrayList<>();
+        Set<String> queued = new HashSet<>();
+        for (RemoteFile file : remote.values()) {
+            MirrorManifest.Entry local = current.get(file.path);
+            if (local == null || !local.sha.equals(file.sha)) {
+                dirty = true;
+            }
+            // An object already stored (same content under another path, or
+            // left by an interrupted sync) is not downloaded again.
+            if (!new File(objects, file.sha).exists() && queued.add(file.sha)) {
+                changed.add(file);
+            }
+        }
+
+        int removed = 0;
+        for (String path : current.files().keySet()) {
+            if (underAny(path, folders) && !remote.containsKey(path)) {
+                removed++;
+            }
+        }
+
+        if (!dirty && removed == 0 && changed.isEmpty()) {
+            return new Result(true, "mirror_current", 0, 0, elapsed(start));
+        }
+
+        AtomicInteger failures = new AtomicInteger();
+        List<Runnable> downloads = new ArrayList<>(changed.size());
+        for (RemoteFile file : changed) {
+            downloads.add(() -> {
+                try {
+                    download(objects, file);
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                    Log.w(TAG, "Download failed: " + file.path, e);
+                }
+            });
+        }
+
+        try {
+            TaskScheduler.runBounded(
+                    TaskScheduler.Lane.NETWORK,
+                    TaskScheduler.Priority.BACKGROUND,
+                    MAX_PARALLEL_DOWNLOADS,
+                    downloads
+            );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(false, "interrupted", 0, 0, elapsed(start));
+        }
+
+        if (failures.get() > 0) {
+            // Verified objects stay on disk, so the next attempt only fetches the rest.
+            return new Result(false, "download_fail", changed.size() - failures.get(), 0,
+                    elapsed(start));
+        }
+
+        Map<String, MirrorManifest.Entry> files = new HashMap<>(current.files());
+        for (String path : current.files().keySet()) {
+            if (underAny(path, folders)) {
+                files.remove(path);
+            }
+        }
+        for (RemoteFile file : remote.values()) {
+            files.put(file.path, new MirrorManifest.Entry(file.sha, file.size));
+        }
+        MirrorManifest next = new MirrorManifest(head, files);
+
+        try {
+            synchronized (MANIFEST_LOCK) {
+                next.writeTo(manifestFile(context));
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Manifest commit failed", e);
+            return new Result(false, "commit_fail", changed.size(), 0, elapsed(start));
+        }
+
+        collectGarbage(context, objects, next, current);
+        return new Result(true, "mirror_sync", changed.size(), removed, elapsed(start));
+    }
+
+    /* =========================
+       Internal mechanics
+       ========================= */
+
+    private static final class RemoteFile {
+        final String path;
+        final String sha;
+        final long size;
+        final String downloadUrl;
+
+        RemoteFile(String path, String sha, long size, String downloadUrl) {
+            this.path = path;
+            this.sha = sha;
+            this.size = size;
+            this.downloadUrl = downloadUrl;
+        }
+    }
+
+    /**
+     * One contents listing per folder. Listings are conditional and cached
+     * by {@link GitHubClient}, so an unchanged folder costs a 304.
+     */
+    private static void listRemote(
+            String owner,
+            String repo,
+            String folder,
+            int depth,
+            Set<String> exclude,
+            Map<String, RemoteFile> out
+    ) throws Exception {
+        String json = GitHubClient.get(
+                "/repos/" + owner + "/" + repo + "/contents/" + folder,
+                null,
+                true
+        );
+        JSONArray entries = new JSONArray(json);
+
+        for (int i = 0; i < entries.length(); i++) {
+            JSONObject entry = entries.getJSONObject(i);
+            String type = entry.optString("type");
+            String path = entry.optString("path");
+
+            if ("dir".equals(type) && depth < MAX_DEPTH) {
+                listRemote(owner, repo, path, depth + 1, exclude, out);
+            } else if ("file".equals(type) && !exclude.contains(path)) {
+                String sha = entry.optString("sha", "");
+                String downloadUrl = entry.optString("download_url", "");
+                if (!sha.isEmpty() && !downloadUrl.isEmpty()) {
+                    out.put(path, new RemoteFile(path, sha, entry.optLong("size", -1), downloadUrl));
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams {@code file} into objects/&lt;sha&gt;.tmp, verifies its blob
+     * SHA and renames it into place.
+     */
+    private static void download(File objects, RemoteFile file) throws Exception {
+        File tmpFile = new File(objects, file.sha + TMP_SUFFIX);
+
+        try (HttpEngine.Call call = HttpEngine.open(HttpEngine.Request.get(file.downloadUrl))) {
+            if (call.code() != HttpURLConnection.HTTP_OK) {
+                throw new IllegalStateException("HTTP " + call.code());
+            }
+
+            MessageDigest digest = file.size >= 0 ? GitBlobDigest.start(file.size) : null;
+            long written = RoutineManagerApi.writeBody(call, tmpFile, digest);
+
+            String actualSha = digest != null && written == file.size
+                    ? GitBlobDigest.finish(digest)
+                    : GitBlobDigest.of(tmpFile);
+
+            if (!actualSha.equals(file.sha)) {
+                throw new IllegalStateException(
+                        "SHA mismatch for " + file.path + ": got " + actualSha
+                );
+            }
+        } catch (Exception e) {
+            tmpFile.delete();
+            throw e;
+        }
+
+        if (!tmpFile.renameTo(new File(objects, file.sha))) {
+            tmpFile.delete();
+            throw new IllegalStateException("Object promote failed: " + file.path);
+        }
+    }
+
+    /**
+     * Deletes objects referenced by neither the new nor the previous
+     * manifest, nor kept as a routine version. Keeping the previous
+     * generation means a reader that resolved a path just before the commit
+     * can still open it.
+     * <p>
+     * Holds the {@link RoutineStore} lock throughout: the mirror runs
+     * beside the routine serializer, and a routine being promoted must not
+     * lose its object between being written and being retained.
+     */
+    private static void collectGarbage(Context context, File objects,
+                                       MirrorManifest next, MirrorManifest previous) {
+        synchronized (RoutineStore.class) {
+            File[] stored = objects.listFiles();
+            if (stored == null) {
+                return;
+            }
+
+            for (File object : stored) {
+                String sha = object.getName();
+                if (sha.endsWith(TMP_SUFFIX)) {
+                    continue;
+                }
+                if (next.containsSha(sha) || previous.containsSha(sha)
+                        || RoutineStore.isRetained(context, sha)) {
+                    continue;
+                }
+                if (!object.delete()) {
+                    Log.w(TAG, "Could not delete stale object " + sha);
+                }
+            }
+        }
+    }
+
+    private static boolean underAny(String path, List<String> folders) {
+        for (String folder : folders) {
+            if (path.startsWith(folder + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean objectsPresent(Context context, MirrorManifest manifest,
+                                          List<String> folders) {
+        File objects = objectsDir(context);
+        for (Map.Entry<String, MirrorManifest.Entry> entry : manifest.files().entrySet()) {
+            if (underAny(entry.getKey(), folders)
+                    && !new File(objects, entry.getValue().sha).exists()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCommitSha(String value) {
+        if (value.length() != 40) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String encodePath(String path) throws UnsupportedEncodingException {
+        StringBuilder encoded = new StringBuilder(path.length() + 16);
+        for (String segment : path.split("/")) {
+            if (encoded.length() > 0) {
+                encoded.append('/');
+            }
+            encoded.append(URLEncoder.encode(segment, "UTF-8").replace("+", "%20"));
+        }
+        return encoded.toString();
+    }
+
+    private static MirrorManifest loadManifest(Context context) {
+        synchronized (MANIFEST_LOCK) {
+            return MirrorManifest.load(manifestFile(context));
+        }
+    }
+
+    private static File manifestFile(Context context) {
+        return new File(RoutineManagerApi.ensureCacheDir(context), MANIFEST_FILE);
+    }
+
+    private static File objectsDir(Context context) {
+        return RoutineStore.objectsDir(context);
+    }
+
+    private static long elapsed(long start) {
+        return SystemClock.elapsedRealtime() - start;
+    }
+}
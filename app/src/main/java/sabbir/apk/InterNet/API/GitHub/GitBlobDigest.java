@@ -0,0 +1,61 @@
+package sabbir.apk.InterNet.API.GitHub;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Git blob object id: SHA-1 over {@code "blob <length>\0"} followed by the
+ * content. This is the {@code sha} GitHub reports for every file.
+ */
+final class GitBlobDigest {
+
+    private GitBlobDigest() {
+        // utility class
+    }
+
+    /**
+     * Starts a digest for a blob of {@code length} bytes; feed it the
+     * content as it streams in.
+     */
+    static MessageDigest start(long length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(("blob " + length + "\0").getBytes(StandardCharsets.US_ASCII));
+            return digest;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 unavailable", e);
+        }
+    }
+
+    static String finish(MessageDigest digest) {
+        byte[] hash = digest.digest();
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    static String of(byte[] content) {
+        MessageDigest digest = start(content.length);
+        digest.update(content);
+        return finish(digest);
+    }
+
+    static String of(File file) throws IOException {
+        MessageDigest digest = start(file.length());
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return finish(digest);
+    }
+}
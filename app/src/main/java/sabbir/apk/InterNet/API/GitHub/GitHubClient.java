@@ -1,45 +1,206 @@
 package sabbir.apk.InterNet.API.GitHub;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import android.content.Context;
+import android.util.Log;
+
+import com.atwebpages.sabbir28.Core.HttpEngine;
+import com.atwebpages.sabbir28.Core.RequestCoalescer;
+
+import java.io.File;
+import java.io.IOException;
 import java.net.HttpURLConnection;
-import java.net.URL;
 
 public final class GitHubClient {
 
+    private static final String TAG = "GitHubClient";
     private static final String API_BASE = "https://api.github.com";
+    private static final String CACHE_DIR = "github_http";
+    private static final String DEFAULT_ACCEPT = "application/vnd.github+json";
+
+    /** How long a finished response is shared with identical callers. */
+    private static final long COALESCE_TTL_MS = 15_000L;
+
+    private static final RequestCoalescer<String> COALESCER =
+            new RequestCoalescer<>(COALESCE_TTL_MS);
+
+    private static volatile GitHubResponseCache cache;
+    private static volatile GitHubRateGovernor governor;
 
     private GitHubClient() {}
 
+    /** GitHub answered with a status other than 2xx (or a 304 with no cached copy). */
+    public static final class HttpStatusException extends IOException {
+        public final int code;
+
+        HttpStatusException(int code, String endpoint) {
+            super("HTTP " + code + " " + endpoint);
+            this.code = code;
+        }
+    }
+
+    /**
+     * Installs the on-disk response cache and the rate-limit governor.
+     * Safe to call more than once.
+     */
+    public static void init(Context context) {
+        if (cache != null) {
+            return;
+        }
+        synchronized (GitHubClient.class) {
+            if (cache == null) {
+                cache = new GitHubResponseCache(
+                        new File(context.getApplicationContext().getCacheDir(), CACHE_DIR)
+                );
+                governor = new GitHubRateGovernor(context);
+            }
+        }
+    }
+
+    /**
+     * GET an API endpoint. Identical calls made while one is in flight, or
+     * within a few seconds of it finishing, share its result. Error
+     * statuses throw {@link HttpStatusException}, so they are never shared.
+     */
     public static String get(String endpoint, String token) throws Exception {
-        URL url = new URL(API_BASE + endpoint);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        return get(endpoint, token, false);
+    }
 
-        connection.setRequestMethod("GET");
-        connection.setConnectTimeout(15000);
-        connection.setReadTimeout(15000);
-        connection.setRequestProperty("Accept", "application/vnd.github+json");
+    /**
+     * @param deferrable true for calls that can wait for the next rate-limit
+     *                   window (e.g. the release check); while the budget is
+     *                   low they are answered from cache or fail fast
+     */
+    public static String get(String endpoint, String token, boolean deferrable) throws Exception {
+        return get(endpoint, token, deferrable, DEFAULT_ACCEPT);
+    }
 
-        if (token != null && !token.isEmpty()) {
-            connection.setRequestProperty("Authorization", "Bearer " + token);
+    /**
+     * @param accept media type to request, e.g. {@code application/vnd.github.sha}
+     *               for a bare commit SHA instead of the full commit JSON
+     */
+    public static String get(String endpoint, String token, boolean deferrable, String accept)
+            throws Exception {
+        boolean authorized = token != null && !token.isEmpty();
+        String cacheKey = (authorized ? "auth:" : "anon:") + endpoint
+                + (DEFAULT_ACCEPT.equals(accept) ? "" : " " + accept);
+        GitHubRateGovernor.Importance importance = deferrable
+                ? GitHubRateGovernor.Importance.DEFERRABLE
+                : GitHubRateGovernor.Importance.CRITICAL;
+
+        // Importance is part of the key: a deferrable call the governor
+        // turned away must not hand its refusal to a critical one.
+        return COALESCER.execute(
+                "GET",
+                importance + " " + cacheKey + " " + API_BASE + endpoint,
+                () -> fetch(endpoint, token, authorized, cacheKey, importance, accept)
+        );
+    }
+
+    /**
+     * Coalescing since process start, for diagnostics: calls that went to
+     * the network, joined one in flight, or reused a fresh result.
+     */
+    public static String coalescingSummary() {
+        return "executed=" + COALESCER.executedCount()
+                + " joined=" + COALESCER.joinedCount()
+                + " reused=" + COALESCER.reusedCount();
+    }
+
+    /**
+     * Rate-limit decisions since process start, for logs and the network
+     * stats screen.
+     */
+    public static String rateLimitSummary() {
+        GitHubRateGovernor rateGovernor = governor;
+        if (rateGovernor == null) {
+            return "governor=off";
+        }
+        return "allowed=" + rateGovernor.allowedCount()
+                + " deferred=" + rateGovernor.deferredCount()
+                + " blocked=" + rateGovernor.blockedCount()
+                + " from_cache=" + rateGovernor.servedFromCacheCount();
+    }
+
+    private static String fetch(
+            String endpoint,
+            String token,
+            boolean authorized,
+            String cacheKey,
+            GitHubRateGovernor.Importance importance,
+            String accept
+    ) throws Exception {
+
+        GitHubResponseCache responseCache = cache;
+        GitHubResponseCache.Entry cached = responseCache != null
+                ? responseCache.read(cacheKey)
+                : null;
+
+        GitHubRateGovernor rateGovernor = governor;
+        String bucket = authorized
+                ? GitHubRateGovernor.BUCKET_AUTH
+                : GitHubRateGovernor.BUCKET_ANON;
+
+        if (rateGovernor != null) {
+            GitHubRateGovernor.Decision decision =
+                    rateGovernor.admit(bucket, importance, endpoint);
+            if (decision != GitHubRateGovernor.Decision.ALLOW) {
+                if (cached != null) {
+                    rateGovernor.recordServedFromCache(endpoint, decision);
+                    return cached.body;
+                }
+                throw new GitHubRateGovernor.RateLimitedException(
+                        decision + " " + endpoint + ": rate-limit budget low, no cached copy"
+                );
+            }
+        }
+
+        HttpEngine.Request request = HttpEngine.Request.get(API_BASE + endpoint)
+                .header("Accept", accept);
+
+        if (authorized) {
+            request.header("Authorization", "Bearer " + token);
+        }
+
+        if (cached != null) {
+            // Revalidate instead of refetching; GitHub does not bill 304s to the rate limit.
+            if (!cached.etag.isEmpty()) {
+                request.header("If-None-Match", cached.etag);
+            }
+            if (!cached.lastModified.isEmpty()) {
+                request.header("If-Modified-Since", cached.lastModified);
+            }
         }
 
-        int status = connection.getResponseCode();
-        InputStream stream = status >= 200 && status < 300
-                ? connection.getInputStream()
-                : connection.getErrorStream();
+        HttpEngine.Response response = HttpEngine.execute(request);
+
+        if (rateGovernor != null) {
+            rateGovernor.record(bucket, response);
+            if (GitHubRateGovernor.isRateLimited(response) && cached != null) {
+                rateGovernor.recordServedFromCache(endpoint, GitHubRateGovernor.Decision.BLOCK);
+                return cached.body;
+            }
+        }
+
+        if (response.code == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+            Log.d(TAG, "Not modified, served from cache: " + endpoint);
+            return cached.body;
+        }
+
+        if (response.code < 200 || response.code >= 300) {
+            throw new HttpStatusException(response.code, endpoint);
+        }
 
-        BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
-        StringBuilder response = new StringBuilder();
-        String line;
+        String body = response.bodyString();
 
-        while ((line = reader.readLine()) != null) {
-            response.append(line);
+        if (response.code == HttpURLConnection.HTTP_OK && responseCache != null) {
+            responseCache.write(
+                    cacheKey,
+                    response.header("ETag"),
+                    response.header("Last-Modified"),
+                    body
+            );
         }
 
-        reader.close();
-        connection.disconnect();
-        return response.toString();
+        return body;
     }
 }
@@ -0,0 +1,219 @@
+package sabbir.apk.InterNet.API.GitHub;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.atwebpages.sabbir28.Core.HttpEngine;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GitHubRateGovernor
+ *
+ * Accountability:
+ * - Track the REST rate-limit budget from X-RateLimit-* on every response
+ * - Persist it so a cold start knows the budget is already spent
+ * - Hold back deferrable calls (release check) while the budget is low
+ * - Hold back every call once it is exhausted, until the reset time
+ *
+ * Unauthenticated calls share one budget per public IP (60/hour), which the
+ * whole campus NAT shares, so anonymous and authorized budgets are tracked
+ * separately.
+ *
+ * Storage:
+ * shared_prefs/github_rate.xml
+ *  ├── <bucket>_remaining
+ *  ├── <bucket>_limit
+ *  └── <bucket>_reset    (epoch seconds)
+ */
+final class GitHubRateGovernor {
+
+    private static final String TAG = "GitHubRateGovernor";
+    private static final String PREFS = "github_rate";
+
+    static final String BUCKET_ANON = "anon";
+    static final String BUCKET_AUTH = "auth";
+
+    /** Requests kept in reserve for critical calls. */
+    private static final int DEFERRABLE_RESERVE = 15;
+
+    enum Importance {
+        /** The user is waiting on it (routine lookup). */
+        CRITICAL,
+        /** Can wait for the next window (release check). */
+        DEFERRABLE
+    }
+
+    enum Decision {
+        ALLOW,
+        DEFER,
+        BLOCK
+    }
+
+    /** Thrown when a call is held back and nothing cached can stand in. */
+    static final class RateLimitedException extends IOException {
+        RateLimitedException(String message) {
+            super(message);
+        }
+    }
+
+    private final SharedPreferences prefs;
+
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong servedFromCache = new AtomicLong();
+
+    GitHubRateGovernor(Context context) {
+        this.prefs = context.getApplicationContext()
+                .getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+
+    /* =========================
+       Decisions
+       ========================= */
+
+    synchronized Decision admit(String bucket, Importance importance, String endpoint) {
+        long nowSec = System.currentTimeMillis() / 1000L;
+        long reset = prefs.getLong(bucket + "_reset", 0L);
+        int remaining = prefs.getInt(bucket + "_remaining", -1);
+
+        // Unknown budget, or the window has rolled over since we last heard.
+        if (remaining < 0 || nowSec >= reset) {
+            allowed.incrementAndGet();
+            return Decision.ALLOW;
+        }
+
+        if (remaining == 0) {
+            blocked.incrementAndGet();
+            Log.w(TAG, "BLOCK " + endpoint + " (" + bucket + " budget exhausted, resets in "
+                    + (reset - nowSec) + "s)");
+            return Decision.BLOCK;
+        }
+
+        if (importance == Importance.DEFERRABLE && remaining <= DEFERRABLE_RESERVE) {
+            deferred.incrementAndGet();
+            Log.i(TAG, "DEFER " + endpoint + " (" + bucket + " remaining=" + remaining
+                    + ", resets in " + (reset - nowSec) + "s)");
+            return Decision.DEFER;
+        }
+
+        allowed.incrementAndGet();
+        return Decision.ALLOW;
+    }
+
+    /**
+     * Update the budget from a response's headers.
+     */
+    synchronized void record(String bucket, @NonNull HttpEngine.Response response) {
+        String remaining = response.header("X-RateLimit-Remaining");
+        String limit = response.header("X-RateLimit-Limit");
+        String reset = response.header("X-RateLimit-Reset");
+
+        SharedPreferences.Editor editor = prefs.edit();
+        boolean changed = false;
+
+        Integer remainingValue = parseInt(remaining);
+        if (remainingValue != null) {
+            editor.putInt(bucket + "_remaining", remainingValue);
+            changed = true;
+        }
+        Integer limitValue = parseInt(limit);
+        if (limitValue != null) {
+            editor.putInt(bucket + "_limit", limitValue);
+            changed = true;
+        }
+        Long resetValue = parseLong(reset);
+        if (resetValue != null) {
+            editor.putLong(bucket + "_reset", resetValue);
+            changed = true;
+        }
+
+        // Secondary limits answer 403/429 with Retry-After instead of a reset time.
+        Long retryAfter = parseLong(response.header("Retry-After"));
+        if (isRateLimited(response) && retryAfter != null) {
+            editor.putInt(bucket + "_remaining", 0);
+            editor.putLong(bucket + "_reset", System.currentTimeMillis() / 1000L + retryAfter);
+            changed = true;
+        }
+
+        if (changed) {
+            editor.apply();
+        }
+
+        if (remainingValue != null && remainingValue <= DEFERRABLE_RESERVE) {
+            Log.i(TAG, bucket + " budget low: " + remainingValue + "/" + limit);
+        }
+    }
+
+    void recordServedFromCache(String endpoint, Decision reason) {
+        servedFromCache.incrementAndGet();
+        Log.i(TAG, "Served " + endpoint + " from cache (" + reason + ")");
+    }
+
+    /**
+     * True for the 403/429 GitHub sends when a primary or secondary limit is hit.
+     */
+    static boolean isRateLimited(HttpEngine.Response response) {
+        if (response.code == 429) {
+            return true;
+        }
+        return response.code == HttpURLConnection.HTTP_FORBIDDEN
+                && ("0".equals(response.header("X-RateLimit-Remaining"))
+                || response.header("Retry-After") != null);
+    }
+
+    /* =========================
+       Counters
+       ========================= */
+
+    long allowedCount() {
+        return allowed.get();
+    }
+
+    long deferredCount() {
+        return deferred.get();
+    }
+
+    long blockedCount() {
+        return blocked.get();
+    }
+
+    long servedFromCacheCount() {
+        return servedFromCache.get();
+    }
+
+    /* =========================
+       Helpers
+       ========================= */
+
+    @Nullable
+    private static Integer parseInt(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Long parseLong(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package sabbir.apk.InterNet.API.GitHub;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * GitHubResponseCache
+ *
+ * Accountability:
+ * - Persist successful GitHub API bodies with their validators
+ * - Supply If-None-Match / If-Modified-Since for revalidation
+ * - Serve the stored body when GitHub answers 304
+ *
+ * Storage:
+ * /data/data/<package>/cache/github_http/
+ *  └── <sha1(key)>   (line 1: ETag, line 2: Last-Modified, rest: body)
+ */
+final class GitHubResponseCache {
+
+    private static final String TAG = "GitHubResponseCache";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final File dir;
+
+    GitHubResponseCache(File dir) {
+        this.dir = dir;
+    }
+
+    static final class Entry {
+        final String etag;
+        final String lastModified;
+        final String body;
+
+        Entry(String etag, String lastModified, String body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
+
+    @Nullable
+    synchronized Entry read(String key) {
+        File file = fileFor(key);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+
+            String etag = reader.readLine();
+            String lastModified = reader.readLine();
+            if (etag == null || lastModified == null) {
+                return null;
+            }
+
+            StringBuilder body = new StringBuilder();
+            char[] buffer = new char[4096];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                body.append(buffer, 0, read);
+            }
+
+            return new Entry(etag, lastModified, body.toString());
+
+        } catch (Exception e) {
+            Log.w(TAG, "Cache read failed", e);
+            return null;
+        }
+    }
+
+    synchronized void write(String key, @Nullable String etag,
+                            @Nullable String lastModified, String body) {
+        if (isEmpty(etag) && isEmpty(lastModified)) {
+            // Nothing to revalidate with; storing the body would be dead weight.
+            return;
+        }
+
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.w(TAG, "Cache dir creation failed");
+            return;
+        }
+
+        File file = fileFor(key);
+        File tmpFile = new File(dir, file.getName() + TMP_SUFFIX);
+
+        try (Writer writer = new OutputStreamWriter(
+                new FileOutputStream(tmpFile, false), StandardCharsets.UTF_8)) {
+            writer.write(etag == null ? "" : etag);
+            writer.write('\n');
+            writer.write(lastModified == null ? "" : lastModified);
+            writer.write('\n');
+            writer.write(body);
+        } catch (Exception e) {
+            Log.w(TAG, "Cache write failed", e);
+            return;
+        }
+
+        if (!tmpFile.renameTo(file)) {
+            Log.w(TAG, "Cache replace failed");
+            tmpFile.delete();
+        }
+    }
+
+    private File fileFor(String key) {
+        return new File(dir, sha1Hex(key));
+    }
+
+    private static boolean isEmpty(@Nullable String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static String sha1Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package sabbir.apk.InterNet.API.GitHub;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * MirrorManifest
+ *
+ * Accountability:
+ * - Map each mirrored repo path to the blob SHA (and size) stored for it
+ * - Load tolerantly: a missing or corrupt manifest is an empty mirror
+ * - Replace the on-disk manifest in one rename, after an fsync, so readers
+ *   see either the old directory state or the new one, never a mix
+ *
+ * Format:
+ * {"head":"<commit sha>","files":{"BMC/exam.json":{"sha":"…","size":1234}, …}}
+ * "head" is present only when the listing came from a single commit.
+ */
+final class MirrorManifest {
+
+    private static final String TAG = "MirrorManifest";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    static final class Entry {
+        final String sha;
+        final long size;
+
+        Entry(String sha, long size) {
+            this.sha = sha;
+            this.size = size;
+        }
+    }
+
+    /** Commit the files were listed from, when known (tree sync). */
+    @Nullable
+    private final String head;
+    private final Map<String, Entry> files;
+
+    MirrorManifest(@Nullable String head, Map<String, Entry> files) {
+        this.head = head;
+        this.files = Collections.unmodifiableMap(new TreeMap<>(files));
+    }
+
+    static MirrorManifest empty() {
+        return new MirrorManifest(null, Collections.<String, Entry>emptyMap());
+    }
+
+    /**
+     * @return the manifest at {@code file}, or an empty one if absent or unreadable
+     */
+    static MirrorManifest load(File file) {
+        if (!file.exists()) {
+            return empty();
+        }
+
+        try {
+            JSONObject root = new JSONObject(readUtf8(file));
+            JSONObject list = root.getJSONObject("files");
+
+            Map<String, Entry> files = new TreeMap<>();
+            Iterator<String> paths = list.keys();
+            while (paths.hasNext()) {
+                String path = paths.next();
+                JSONObject entry = list.getJSONObject(path);
+                files.put(path, new Entry(entry.getString("sha"), entry.optLong("size", -1)));
+            }
+            String head = root.optString("head", "");
+            return new MirrorManifest(head.isEmpty() ? null : head, files);
+        } catch (Exception e) {
+            Log.w(TAG, "Manifest unreadable, treating mirror as empty", e);
+            return empty();
+        }
+    }
+
+    @Nullable
+    String head() {
+        return head;
+    }
+
+    @Nullable
+    Entry get(String path) {
+        return files.get(path);
+    }
+
+    Map<String, Entry> files() {
+        return files;
+    }
+
+    boolean containsSha(String sha) {
+        for (Entry entry : files.values()) {
+            if (entry.sha.equals(sha)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes to {@code file}.tmp, syncs it to disk and renames it over
+     * {@code file}. The rename is the commit point.
+     */
+    void writeTo(File file) throws Exception {
+        JSONObject list = new JSONObject();
+        for (Map.Entry<String, Entry> mirrored : files.entrySet()) {
+            list.put(mirrored.getKey(), new JSONObject()
+                    .put("sha", mirrored.getValue().sha)
+                    .put("size", mirrored.getValue().size));
+        }
+        JSONObject root = new JSONObject().put("files", list);
+        if (head != null) {
+            root.put("head", head);
+        }
+        byte[] bytes = root.toString()
+                .getBytes(StandardCharsets.UTF_8);
+
+        File tmpFile = new File(file.getParentFile(), file.getName() + TMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+            out.write(bytes);
+            out.flush();
+            out.getFD().sync();
+        }
+
+        if (!tmpFile.renameTo(file)) {
+            tmpFile.delete();
+            throw new IOException("Manifest commit failed");
+        }
+    }
+
+    private static String readUtf8(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        try (InputStream in = new FileInputStream(file)) {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = in.read(bytes, offset, bytes.length - offset);
+                if (read == -1) {
+                    throw new IOException("Manifest truncated while reading");
+                }
+                offset += read;
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
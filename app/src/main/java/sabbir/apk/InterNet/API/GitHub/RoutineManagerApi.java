@@ -5,19 +5,26 @@ import android.util.Log;
 
 import androidx.annotation.Nullable;
 
+import com.atwebpages.sabbir28.Core.HttpEngine;
+import com.atwebpages.sabbir28.Core.TaskScheduler;
+
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.security.MessageDigest;
+import java.time.DayOfWeek;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import sabbir.apk.InterNet.Deta.RoutineEntry;
 
 /**
  * RoutineManagerApi
@@ -26,23 +33,24 @@ import java.util.concurrent.Executors;
  * - Validate remote SHA
  * - Cache routine.json locally
  * - Download only on change
- * - Guarantee file integrity
+ * - Guarantee file integrity (git blob SHA checked while downloading)
+ * - Switch back to a kept version without downloading it again
  *
- * Storage:
- * /data/data/<package>/files/github_cache/
- *  ├── routine.json
- *  └── routine.json.sha
+ * Storage: versions live in {@link RoutineStore}; downloads are staged as
+ * github_cache/routine.json.tmp until validated.
  */
 public final class RoutineManagerApi {
 
     private static final String TAG = "RoutineManagerApi";
     private static final String CACHE_DIR = "github_cache";
     private static final String ROUTINE_FILE = "routine.json";
-    private static final String SHA_SUFFIX = ".sha";
     private static final String TMP_SUFFIX = ".tmp";
 
-    private static final ExecutorService EXECUTOR =
-            Executors.newSingleThreadExecutor();
+    /** Syncs, promotes and snapshot rebuilds run one at a time on the network lane. */
+    private static final Executor SERIAL = TaskScheduler.serial(
+            TaskScheduler.Lane.NETWORK,
+            TaskScheduler.Priority.USER_VISIBLE
+    );
 
     private RoutineManagerApi() {
         // utility class
@@ -53,23 +61,24 @@ public final class RoutineManagerApi {
        ========================= */
 
     public static void sync(Context context, JSONObject githubFileObject) {
-        EXECUTOR.execute(() -> {
+        SERIAL.execute(() -> {
             try {
                 String remoteSha = githubFileObject.getString("sha");
                 String downloadUrl = githubFileObject.getString("download_url");
 
-                String localSha = readLocalSha(context);
-
-                if (remoteSha.equals(localSha)
-                        && routineFileExists(context)) {
+                if (isCurrent(context, remoteSha)) {
                     Log.d(TAG, "Routine cache is current");
                     return;
                 }
 
-                File downloaded = downloadRoutine(context, downloadUrl);
+                File downloaded = downloadRoutine(
+                        context,
+                        downloadUrl,
+                        remoteSha,
+                        githubFileObject.optLong("size", -1)
+                );
 
-                promoteTempFile(context, downloaded);
-                writeLocalSha(context, remoteSha);
+                commit(context, downloaded, remoteSha);
 
                 Log.d(TAG, "Routine sync completed successfully");
 
@@ -80,10 +89,19 @@ public final class RoutineManagerApi {
     }
 
     /**
-     * Safe accessor for routine.json
+     * Safe accessor for one day of routine.json.
+     * Parsing stops once the requested day has been read.
+     *
+     * @return the day's entries (empty when absent), or null if unreadable
      */
     @Nullable
-    public static JSONObject readRoutine(Context context) {
+    public static List<RoutineEntry> readDay(Context context, DayOfWeek day) {
+        RoutineSnapshot snapshot = openSnapshot(context);
+        if (snapshot != null) {
+            List<RoutineEntry> entries = snapshot.readDay(day);
+            return entries != null ? entries : Collections.<RoutineEntry>emptyList();
+        }
+
         File file = getRoutineFile(context);
 
         if (!file.exists() || !file.canRead()) {
@@ -91,132 +109,388 @@ public final class RoutineManagerApi {
             return null;
         }
 
-        try (BufferedReader reader =
-                     new BufferedReader(new FileReader(file))) {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            List<RoutineEntry> entries = RoutineParser.readDay(in, day);
+            // Legacy cache without a snapshot: build one for the next reader.
+            runSerialized(() -> rebuildSnapshot(context));
+            return entries;
+        } catch (Exception e) {
+            Log.e(TAG, "Routine read failed", e);
+            return null;
+        }
+    }
+
+    /**
+     * Safe accessor for every day of routine.json.
+     *
+     * @return entries keyed by day (absent days omitted), or null if unreadable
+     */
+    @Nullable
+    public static Map<DayOfWeek, List<RoutineEntry>> readWeek(Context context) {
+        RoutineSnapshot snapshot = openSnapshot(context);
+        if (snapshot != null) {
+            return snapshot.readWeek();
+        }
 
-            StringBuilder json = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                json.append(line);
-            }
+        File file = getRoutineFile(context);
 
-            return new JSONObject(json.toString());
+        if (!file.exists() || !file.canRead()) {
+            Log.w(TAG, "Routine file unavailable");
+            return null;
+        }
 
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            Map<DayOfWeek, List<RoutineEntry>> week = RoutineParser.readWeek(in);
+            runSerialized(() -> rebuildSnapshot(context));
+            return week;
         } catch (Exception e) {
             Log.e(TAG, "Routine read failed", e);
             return null;
         }
     }
 
-    public static File getRoutineFile(Context context) {
-        return new File(
-                new File(context.getFilesDir(), CACHE_DIR),
-                ROUTINE_FILE
+    /**
+     * Loads the routine store on the disk lane so the first lookup from a
+     * screen or widget finds it in memory. The first load may migrate or
+     * rehash files; everything else here is blocking and belongs off main.
+     */
+    public static void warmUp(Context context) {
+        Context appContext = context.getApplicationContext();
+        TaskScheduler.run(
+                TaskScheduler.Lane.DISK,
+                TaskScheduler.Priority.IMMEDIATE,
+                () -> RoutineStore.state(appContext)
         );
     }
 
+    /**
+     * @return the current routine's JSON; a file that does not exist when
+     *         no routine has been synced yet
+     */
+    public static File getRoutineFile(Context context) {
+        String sha = readLocalSha(context);
+        if (sha == null) {
+            return new File(new File(context.getFilesDir(), CACHE_DIR), ROUTINE_FILE);
+        }
+        return RoutineStore.routineFile(context, sha);
+    }
+
+    /**
+     * Makes {@code sha} current if it is one of the kept versions, e.g. when
+     * the publisher reverts to an earlier routine. Blocking; call via
+     * {@link #runSerialized}.
+     *
+     * @return false if that version is not stored locally
+     */
+    public static boolean activateStored(Context context, String sha) {
+        if (isCurrent(context, sha)) {
+            return true;
+        }
+        try {
+            if (!RoutineStore.activate(context, sha)) {
+                return false;
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Activating stored routine failed", e);
+            return false;
+        }
+        RoutineRepository.getInstance(context).invalidate(sha);
+        Log.i(TAG, "Switched to stored routine " + sha);
+        return true;
+    }
+
+    /**
+     * Goes back to the previously current routine, offline. Blocking; call
+     * via {@link #runSerialized}.
+     *
+     * @return the SHA now current, or null if there is no earlier version
+     */
+    @Nullable
+    public static String rollback(Context context) {
+        List<String> versions = RoutineStore.state(context).versions;
+        for (int i = 1; i < versions.size(); i++) {
+            if (activateStored(context, versions.get(i))) {
+                return versions.get(i);
+            }
+        }
+        return null;
+    }
+
     /* =========================
        Internal mechanics
        ========================= */
 
-    private static File downloadRoutine(Context context, String urlString)
+    /**
+     * Runs work on the routine's serial queue so syncs never overlap.
+     */
+    public static void runSerialized(Runnable task) {
+        SERIAL.execute(task);
+    }
+
+    /**
+     * True when the cached routine is the blob {@code remoteSha}.
+     */
+    public static boolean isCurrent(Context context, String remoteSha) {
+        return remoteSha.equals(readLocalSha(context))
+                && routineFileExists(context);
+    }
+
+    /**
+     * Streams the routine into routine.json.tmp while computing its git blob
+     * SHA. The temp file is deleted and an exception thrown unless the
+     * content matches {@code expectedSha}.
+     *
+     * @param expectedSize blob size from the contents API, or -1 if unknown
+     */
+    static File downloadRoutine(Context context, String urlString,
+                                String expectedSha, long expectedSize)
             throws Exception {
 
-        HttpURLConnection conn = null;
+        try (HttpEngine.Call call = HttpEngine.open(HttpEngine.Request.get(urlString))) {
 
-        try {
-            URL url = new URL(urlString);
-            conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(15_000);
-            conn.setReadTimeout(15_000);
-            conn.connect();
-
-            if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+            if (call.code() != HttpURLConnection.HTTP_OK) {
                 throw new IllegalStateException(
-                        "HTTP " + conn.getResponseCode()
+                        "HTTP " + call.code()
                 );
             }
 
-            File cacheDir = ensureCacheDir(context);
-            File tmpFile = new File(cacheDir, ROUTINE_FILE + TMP_SUFFIX);
-
-            try (
-                    InputStream in = conn.getInputStream();
-                    FileOutputStream out = new FileOutputStream(tmpFile)
-            ) {
-                byte[] buffer = new byte[4096];
-                int read;
-                while ((read = in.read(buffer)) != -1) {
-                    out.write(buffer, 0, read);
-                }
-                out.flush();
+            File tmpFile = new File(ensureCacheDir(context), ROUTINE_FILE + TMP_SUFFIX);
+
+            // The blob header needs the length up front; without it we hash afterwards.
+            MessageDigest digest = expectedSize >= 0
+                    ? GitBlobDigest.start(expectedSize)
+                    : null;
+            long written = writeBody(call, tmpFile, digest);
+
+            String actualSha;
+            if (digest == null) {
+                actualSha = GitBlobDigest.of(tmpFile);
+            } else if (written != expectedSize) {
+                tmpFile.delete();
+                throw new IllegalStateException(
+                        "Truncated routine: " + written + " of " + expectedSize + " bytes"
+                );
+            } else {
+                actualSha = GitBlobDigest.finish(digest);
+            }
+
+            if (!actualSha.equals(expectedSha)) {
+                tmpFile.delete();
+                throw new IllegalStateException(
+                        "Routine SHA mismatch: expected " + expectedSha + ", got " + actualSha
+                );
             }
 
             return tmpFile;
+        }
+    }
 
-        } finally {
-            if (conn != null) {
-                conn.disconnect();
-            }
+    /**
+     * A routine fetched straight from raw.githubusercontent.com, already in
+     * routine.json.tmp. Its SHA is computed locally since raw responses do
+     * not carry one.
+     */
+    static final class RawRoutine {
+        final File file;
+        final String sha;
+        @Nullable
+        final String etag;
+
+        RawRoutine(File file, String sha, @Nullable String etag) {
+            this.file = file;
+            this.sha = sha;
+            this.etag = etag;
         }
     }
 
-    private static void promoteTempFile(Context context, File tmpFile) {
-        File finalFile = getRoutineFile(context);
+    /**
+     * Conditional GET of the raw file, revalidated with the ETag stored by
+     * the last raw sync. Raw content is served by a CDN, not the REST API,
+     * so this never spends rate-limit budget.
+     *
+     * @return the downloaded routine, or null when unchanged (304)
+     */
+    @Nullable
+    static RawRoutine downloadRaw(Context context, String rawUrl) throws Exception {
+        HttpEngine.Request request = HttpEngine.Request.get(rawUrl);
 
-        if (finalFile.exists() && !finalFile.delete()) {
-            throw new IllegalStateException("Old routine cleanup failed");
+        String etag = readLocalEtag(context);
+        if (etag != null && routineFileExists(context)) {
+            request.header("If-None-Match", etag);
         }
 
-        if (!tmpFile.renameTo(finalFile)) {
-            throw new IllegalStateException("Atomic replace failed");
+        try (HttpEngine.Call call = HttpEngine.open(request)) {
+            if (call.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return null;
+            }
+            if (call.code() != HttpURLConnection.HTTP_OK) {
+                throw new IllegalStateException("HTTP " + call.code());
+            }
+
+            File tmpFile = new File(ensureCacheDir(context), ROUTINE_FILE + TMP_SUFFIX);
+            writeBody(call, tmpFile, null);
+            return new RawRoutine(tmpFile, GitBlobDigest.of(tmpFile), call.header("ETag"));
         }
     }
 
-    public static boolean routineFileExists(Context context) {
-        File file = getRoutineFile(context);
-        return file.exists() && file.length() > 0;
+    static long writeBody(HttpEngine.Call call, File tmpFile,
+                                  @Nullable MessageDigest digest) throws IOException {
+        long written = 0;
+        byte[] buffer = HttpEngine.acquireBuffer();
+        try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+            InputStream in = call.body();
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                if (digest != null) {
+                    digest.update(buffer, 0, read);
+                }
+                written += read;
+            }
+            out.flush();
+        } catch (IOException e) {
+            tmpFile.delete();
+            throw e;
+        } finally {
+            HttpEngine.releaseBuffer(buffer);
+        }
+        return written;
     }
 
-    private static File ensureCacheDir(Context context) {
-        File dir = new File(context.getFilesDir(), CACHE_DIR);
-        if (!dir.exists() && !dir.mkdirs()) {
-            throw new IllegalStateException("Cache dir creation failed");
+    /**
+     * Validate a downloaded routine by compiling its snapshot, then store
+     * both and make the SHA current with one manifest swap. A file that does
+     * not parse is rejected before it can replace the current routine, and
+     * the routine it replaces stays on disk as a rollback target.
+     */
+    static void commit(Context context, File tmpFile, String sha) throws Exception {
+        commit(context, tmpFile, sha, false);
+    }
+
+    /**
+     * {@link #commit} for a routine rebuilt from a pushed patch: verified to
+     * hold the same routine as blob {@code sha}, but not its bytes, so it is
+     * kept apart from the content-addressed objects (see {@link RoutineStore}).
+     */
+    static void commitPatched(Context context, File tmpFile, String sha) throws Exception {
+        commit(context, tmpFile, sha, true);
+    }
+
+    private static void commit(Context context, File tmpFile, String sha, boolean patched)
+            throws Exception {
+        File kept = patched
+                ? RoutineStore.routineFile(context, sha)
+                : RoutineStore.objectFile(context, sha);
+        if (kept.exists()) {
+            // A kept version came back; the stored copy is the same bytes.
+            tmpFile.delete();
+            if (!RoutineStore.activate(context, sha)) {
+                throw new IllegalStateException("Stored routine vanished: " + sha);
+            }
+            RoutineRepository.getInstance(context).invalidate(sha);
+            return;
         }
-        return dir;
+
+        File tmpSnapshot = new File(ensureCacheDir(context), ROUTINE_FILE + ".bin" + TMP_SUFFIX);
+
+        Map<DayOfWeek, List<RoutineEntry>> week;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(tmpFile))) {
+            week = RoutineParser.readWeek(in);
+        }
+        RoutineSnapshot.compile(week, sha, tmpSnapshot);
+
+        // Whoever committed owns the validator; a raw sync writes its own afterwards.
+        if (patched) {
+            RoutineStore.promoteDerived(context, tmpFile, tmpSnapshot, sha);
+        } else {
+            RoutineStore.promote(context, tmpFile, tmpSnapshot, sha);
+        }
+
+        RoutineRepository.getInstance(context).invalidate(sha);
     }
 
+    /**
+     * @return the mapped snapshot, or null if missing or not for the current SHA
+     */
     @Nullable
-    private static String readLocalSha(Context context) {
-        File shaFile = new File(
-                ensureCacheDir(context),
-                ROUTINE_FILE + SHA_SUFFIX
-        );
+    private static RoutineSnapshot openSnapshot(Context context) {
+        String localSha = readLocalSha(context);
+        if (localSha == null) {
+            return null;
+        }
 
-        if (!shaFile.exists()) {
+        File file = RoutineStore.snapshotFile(context, localSha);
+        if (!file.exists()) {
             return null;
         }
 
-        try (BufferedReader reader =
-                     new BufferedReader(new FileReader(shaFile))) {
-            return reader.readLine();
+        try {
+            RoutineSnapshot snapshot = RoutineSnapshot.open(file);
+            if (!localSha.equals(snapshot.sha())) {
+                return null;
+            }
+            return snapshot;
         } catch (Exception e) {
-            Log.e(TAG, "SHA read failed", e);
+            Log.w(TAG, "Snapshot unreadable", e);
+            RoutineStore.discardSnapshot(context, localSha);
             return null;
         }
     }
 
-    private static void writeLocalSha(Context context, String sha) {
-        File shaFile = new File(
-                ensureCacheDir(context),
-                ROUTINE_FILE + SHA_SUFFIX
-        );
+    private static void rebuildSnapshot(Context context) {
+        if (openSnapshot(context) != null) {
+            return;
+        }
+
+        String sha = readLocalSha(context);
+        if (sha == null || !getRoutineFile(context).exists()) {
+            return;
+        }
 
-        try (FileWriter writer = new FileWriter(shaFile, false)) {
-            writer.write(sha);
+        try {
+            // Compiles the missing snapshot; the version is already current.
+            RoutineStore.activate(context, sha);
         } catch (Exception e) {
-            Log.e(TAG, "SHA write failed", e);
+            Log.e(TAG, "Snapshot rebuild failed", e);
+        }
+    }
+
+    public static boolean routineFileExists(Context context) {
+        File file = getRoutineFile(context);
+        return file.exists() && file.length() > 0;
+    }
+
+    static File ensureCacheDir(Context context) {
+        File dir = new File(context.getFilesDir(), CACHE_DIR);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IllegalStateException("Cache dir creation failed");
         }
+        return dir;
+    }
+
+    /**
+     * True when the cached routine was rebuilt from a pushed patch and the
+     * published blob itself has not been downloaded yet.
+     */
+    static boolean isPatchDerived(Context context) {
+        return RoutineStore.state(context).currentIsDerived();
+    }
+
+    /** Blob SHA of the cached routine, or null before the first sync. */
+    @Nullable
+    public static String readLocalSha(Context context) {
+        return RoutineStore.state(context).current;
+    }
+
+    @Nullable
+    static String readLocalEtag(Context context) {
+        return RoutineStore.state(context).etag;
+    }
+
+    /**
+     * @param etag the raw response's ETag, or null to forget it
+     */
+    static void writeLocalEtag(Context context, @Nullable String etag) {
+        RoutineStore.setEtag(context, etag);
     }
 }
@@ -0,0 +1,192 @@
+package sabbir.apk.InterNet.API.GitHub;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import sabbir.apk.InterNet.Deta.RoutineEntry;
+
+/**
+ * RoutineParser
+ *
+ * Pull-parses routine.json straight into {@link RoutineEntry} lists
+ * without building the whole document in memory.
+ *
+ * Expected shape:
+ * { "schedule": { "MONDAY": [ { "subject_code", "subject_name",
+ *                               "instructor_name", "room" }, ... ], ... } }
+ */
+public final class RoutineParser {
+
+    private static final String KEY_SCHEDULE = "schedule";
+
+    private RoutineParser() {
+        // utility class
+    }
+
+    /**
+     * Reads a single day and stops as soon as its array is consumed.
+     *
+     * @return the day's entries, or an empty list when the day is absent
+     */
+    public static List<RoutineEntry> readDay(InputStream in, DayOfWeek day)
+            throws IOException {
+
+        try (JsonReader reader = newReader(in)) {
+            if (!enterSchedule(reader)) {
+                return Collections.emptyList();
+            }
+
+            while (reader.hasNext()) {
+                DayOfWeek key = parseDay(reader.nextName());
+                if (key == day && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    return readEntries(reader);
+                }
+                reader.skipValue();
+            }
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Reads every day present under "schedule". Days missing from the
+     * source are missing from the map.
+     */
+    public static Map<DayOfWeek, List<RoutineEntry>> readWeek(InputStream in)
+            throws IOException {
+
+        Map<DayOfWeek, List<RoutineEntry>> week = new EnumMap<>(DayOfWeek.class);
+
+        try (JsonReader reader = newReader(in)) {
+            if (!enterSchedule(reader)) {
+                return week;
+            }
+
+            while (reader.hasNext()) {
+                DayOfWeek key = parseDay(reader.nextName());
+                if (key != null && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    week.put(key, readEntries(reader));
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return week;
+    }
+
+    /* =========================
+       Internal mechanics
+       ========================= */
+
+    private static JsonReader newReader(InputStream in) {
+        JsonReader reader = new JsonReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8)
+        );
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * Advances the reader into the "schedule" object.
+     *
+     * @return false if the document has no schedule object
+     */
+    private static boolean enterSchedule(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (KEY_SCHEDULE.equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    private static List<RoutineEntry> readEntries(JsonReader reader) throws IOException {
+        List<RoutineEntry> entries = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                entries.add(readEntry(reader));
+            } else {
+                reader.skipValue();
+                entries.add(RoutineEntry.free());
+            }
+        }
+        reader.endArray();
+        return entries;
+    }
+
+    private static RoutineEntry readEntry(JsonReader reader) throws IOException {
+        String subjectCode = null;
+        String subjectName = null;
+        String instructorName = null;
+        String room = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "subject_code":
+                    subjectCode = readScalar(reader);
+                    break;
+                case "subject_name":
+                    subjectName = readScalar(reader);
+                    break;
+                case "instructor_name":
+                    instructorName = readScalar(reader);
+                    break;
+                case "room":
+                    room = readScalar(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        return new RoutineEntry(subjectCode, subjectName, instructorName, room);
+    }
+
+    @Nullable
+    private static String readScalar(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    @Nullable
+    private static DayOfWeek parseDay(String name) {
+        try {
+            return DayOfWeek.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package sabbir.apk.InterNet.API.GitHub;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RoutinePatcher
+ *
+ * Accountability:
+ * - Apply an RFC 6902 JSON Patch (add, remove, replace, move, copy, test)
+ *   to the cached routine, as pushed over FCM
+ * - Only patch the routine it was written against (base SHA)
+ * - Verify the result against the SHA-256 of the published routine's
+ *   {@link CanonicalJson} form, then make it current as the target SHA
+ *
+ * Hashing the canonical form means the check holds however the publisher
+ * formats routine.json. The stored copy is the canonical text: the same
+ * routine as the published blob, though not the same bytes, so it is
+ * committed as a patched stand-in ({@link RoutineManagerApi#commitPatched})
+ * rather than as the blob, and the next sync confirms it. Pushes that
+ * carry no canonical hash still need the patched document to reproduce
+ * the published bytes exactly, which only org.json-style formatting does.
+ * A failed op or a mismatch is reported and the caller falls back to a
+ * full download.
+ */
+public final class RoutinePatcher {
+
+    private static final String TAG = "RoutinePatcher";
+
+    /** Serializations tried when matching the target SHA. */
+    private static final int[] INDENTS = {0, 2, 4};
+
+    public enum Outcome {
+        /** Patched and promoted; no download needed. */
+        APPLIED,
+        /** The cached routine is already at the target SHA. */
+        ALREADY_CURRENT,
+        /** Cached routine is not the patch's base; download instead. */
+        BASE_MISMATCH,
+        /** Patched routine holds a value the canonical form cannot express; download instead. */
+        NOT_CANONICAL,
+        /** Patch failed or the result did not hash to the target; download instead. */
+        FAILED
+    }
+
+    private RoutinePatcher() {
+        // utility class
+    }
+
+    /**
+     * Blocking; call via {@link RoutineManagerApi#runSerialized} so it never
+     * interleaves with a sync.
+     *
+     * @param canonicalSha256 hex SHA-256 of the target routine in
+     *                        {@link CanonicalJson} form, as pushed; null for
+     *                        older pushes, which need an exact-bytes match
+     */
+    public static Outcome apply(Context context, String baseSha, String targetSha,
+                                @Nullable String canonicalSha256, String patchJson) {
+        if (RoutineManagerApi.isCurrent(context, targetSha)) {
+            return Outcome.ALREADY_CURRENT;
+        }
+        if (!RoutineManagerApi.isCurrent(context, baseSha)) {
+            Log.i(TAG, "Base " + baseSha + " is not the cached routine");
+            return Outcome.BASE_MISMATCH;
+        }
+
+        File routine = RoutineManagerApi.getRoutineFile(context);
+        File tmpFile = new File(routine.getParentFile(), routine.getName() + ".patch.tmp");
+
+        try {
+            Object document = new JSONTokener(readUtf8(routine)).nextValue();
+            JSONArray operations = new JSONArray(patchJson);
+            for (int i = 0; i < operations.length(); i++) {
+                document = applyOperation(document, operations.getJSONObject(i));
+            }
+
+            byte[] patched = canonicalSha256 != null
+                    ? canonicalMatching(document, canonicalSha256)
+                    : serializeMatching(document, targetSha);
+            if (patched == null) {
+                Log.w(TAG, "Patched routine does not match " + targetSha);
+                return Outcome.FAILED;
+            }
+
+            try (OutputStream out = new FileOutputStream(tmpFile)) {
+                out.write(patched);
+            }
+            if (canonicalSha256 != null) {
+                RoutineManagerApi.commitPatched(context, tmpFile, targetSha);
+            } else {
+                RoutineManagerApi.commit(context, tmpFile, targetSha);
+            }
+            Log.i(TAG, "Applied " + operations.length() + " op(s): " + baseSha + " -> " + targetSha);
+            return Outcome.APPLIED;
+
+        } catch (CanonicalJson.NotCanonicalException e) {
+            Log.w(TAG, "Patched routine has no canonical form: " + e.getMessage());
+            return Outcome.NOT_CANONICAL;
+        } catch (Exception e) {
+            Log.w(TAG, "Patch failed", e);
+            return Outcome.FAILED;
+        } finally {
+            tmpFile.delete();
+        }
+    }
+
+    /* =========================
+       Serialization
+       ========================= */
+
+    private static byte[] canonicalMatching(Object document, String canonicalSha256)
+            throws JSONException {
+        byte[] canonical = CanonicalJson.encode(document);
+        return canonicalSha256.equalsIgnoreCase(CanonicalJson.sha256(canonical))
+                ? canonical
+                : null;
+    }
+
+    /** Exact-bytes fallback for pushes without a canonical hash. */
+    private static byte[] serializeMatching(Object document, String targetSha) throws JSONException {
+        for (int indent : INDENTS) {
+            String text;
+            if (document instanceof JSONObject) {
+                text = indent == 0
+                        ? document.toString()
+                        : ((JSONObject) document).toString(indent);
+            } else if (document instanceof JSONArray) {
+                text = indent == 0
+                        ? document.toString()
+                        : ((JSONArray) document).toString(indent);
+            } else {
+                return null;
+            }
+
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (targetSha.equals(GitBlobDigest.of(bytes))) {
+                return bytes;
+            }
+        }
+        return null;
+    }
+
+    /* =========================
+       RFC 6902 operations
+       ========================= */
+
+    private static Object applyOperation(Object document, JSONObject operation) throws JSONException {
+        String op = operation.getString("op");
+        List<String> path = parsePointer(operation.getString("path"));
+
+        switch (op) {
+            case "add":
+                return add(document, path, copyOf(operation.get("value")));
+            case "remove":
+                remove(document, path);
+                return document;
+            case "replace":
+                return replace(document, path, copyOf(operation.get("value")));
+            case "move": {
+                List<String> from = parsePointer(operation.getString("from"));
+                Object value = get(document, from);
+                remove(document, from);
+                return add(document, path, value);
+            }
+            case "copy": {
+                List<String> from = parsePointer(operation.getString("from"));
+                return add(document, path, copyOf(get(document, from)));
+            }
+            case "test":
+                if (!sameValue(get(document, path), operation.get("value"))) {
+                    throw new JSONException("test failed at " + operation.getString("path"));
+                }
+                return document;
+            default:
+                throw new JSONException("Unsupported op: " + op);
+        }
+    }
+
+    private static Object add(Object document, List<String> path, Object value) throws JSONException {
+        if (path.isEmpty()) {
+            return value;
+        }
+
+        Object parent = get(document, path.subList(0, path.size() - 1));
+        String token = path.get(path.size() - 1);
+
+        if (parent instanceof JSONObject) {
+            ((JSONObject) parent).put(token, value);
+        } else if (parent instanceof JSONArray) {
+            JSONArray array = (JSONArray) parent;
+            int index = "-".equals(token) ? array.length() : parseIndex(token, array.length() + 1);
+            insert(array, index, value);
+        } else {
+            throw new JSONException("Cannot add into a scalar");
+        }
+        return document;
+    }
+
+    /**
+     * Sets the value in place so the member keeps its position; removing and
+     * re-adding would move it to the end and change the serialized bytes.
+     */
+    private static Object replace(Object document, List<String> path, Object value) throws JSONException {
+        if (path.isEmpty()) {
+            return value;
+        }
+
+        Object parent = get(document, path.subList(0, path.size() - 1));
+        String token = path.get(path.size() - 1);
+
+        if (parent instanceof JSONObject) {
+            JSONObject object = (JSONObject) parent;
+            if (!object.has(token)) {
+                throw new JSONException("No member " + token);
+            }
+            object.put(token, value);
+        } else if (parent instanceof JSONArray) {
+            JSONArray array = (JSONArray) parent;
+            array.put(parseIndex(token, array.length()), value);
+        } else {
+            throw new JSONException("Cannot replace inside a scalar");
+        }
+        return document;
+    }
+
+    private static void remove(Object document, List<String> path) throws JSONException {
+        if (path.isEmpty()) {
+            throw new JSONException("Cannot remove the document root");
+        }
+
+        Object parent = get(document, path.subList(0, path.size() - 1));
+        String token = path.get(path.size() - 1);
+
+        if (parent instanceof JSONObject) {
+            JSONObject object = (JSONObject) parent;
+            if (!object.has(token)) {
+                throw new JSONException("No member " + token);
+            }
+            object.remove(token);
+        } else if (parent instanceof JSONArray) {
+            JSONArray array = (JSONArray) parent;
+            array.remove(parseIndex(token, array.length()));
+        } else {
+            throw new JSONException("Cannot remove from a scalar");
+        }
+    }
+
+    private static Object get(Object document, List<String> path) throws JSONException {
+        Object current = document;
+        for (String token : path) {
+            if (current instanceof JSONObject) {
+                JSONObject object = (JSONObject) current;
+                if (!object.has(token)) {
+                    throw new JSONException("No member " + token);
+                }
+                current = object.get(token);
+            } else if (current instanceof JSONArray) {
+                JSONArray array = (JSONArray) current;
+                current = array.get(parseIndex(token, array.length()));
+            } else {
+                throw new JSONException("Path runs through a scalar at " + token);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * JSONArray has no insert; rebuild the tail in place.
+     */
+    private static void insert(JSONArray array, int index, Object value) throws JSONException {
+        int length = array.length();
+        List<Object> tail = new ArrayList<>(length - index);
+        for (int i = index; i < length; i++) {
+            tail.add(array.get(i));
+        }
+        for (int i = length - 1; i >= index; i--) {
+            array.remove(i);
+        }
+        array.put(value);
+        for (Object item : tail) {
+            array.put(item);
+        }
+    }
+
+    /* =========================
+       Helpers
+       ========================= */
+
+    /** RFC 6901 JSON Pointer: "/schedule/Monday/0/room" → [schedule, Monday, 0, room]. */
+    private static List<String> parsePointer(String pointer) throws JSONException {
+        List<String> tokens = new ArrayList<>();
+        if (pointer.isEmpty()) {
+            return tokens;
+        }
+        if (pointer.charAt(0) != '/') {
+            throw new JSONException("Bad pointer: " + pointer);
+        }
+        for (String raw : pointer.substring(1).split("/", -1)) {
+            tokens.add(raw.replace("~1", "/").replace("~0", "~"));
+        }
+        return tokens;
+    }
+
+    private static int parseIndex(String token, int limit) throws JSONException {
+        try {
+            int index = Integer.parseInt(token);
+            if (index < 0 || index >= limit || (token.length() > 1 && token.charAt(0) == '0')) {
+                throw new JSONException("Index out of range: " + token);
+            }
+            return index;
+        } catch (NumberFormatException e) {
+            throw new JSONException("Bad array index: " + token);
+        }
+    }
+
+    /** Patch values must not alias each other or the document. */
+    private static Object copyOf(Object value) throws JSONException {
+        if (value instanceof JSONObject) {
+            return new JSONObject(value.toString());
+        }
+        if (value instanceof JSONArray) {
+            return new JSONArray(value.toString());
+        }
+        return value;
+    }
+
+    private static boolean sameValue(Object actual, Object expected) {
+        if (actual instanceof Number && expected instanceof Number) {
+            return ((Number) actual).doubleValue() == ((Number) expected).doubleValue();
+        }
+        return String.valueOf(actual).equals(String.valueOf(expected));
+    }
+
+    private static String readUtf8(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        try (InputStream in = new FileInputStream(file)) {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = in.read(bytes, offset, bytes.length - offset);
+                if (read == -1) {
+                    throw new IOException("Routine truncated while reading");
+                }
+                offset += read;
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
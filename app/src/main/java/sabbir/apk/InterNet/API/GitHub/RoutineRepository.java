@@ -0,0 +1,192 @@
+package sabbir.apk.InterNet.API.GitHub;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.time.DayOfWeek;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import sabbir.apk.InterNet.Deta.RoutineEntry;
+import sabbir.apk.Timetable.TimetableEngine;
+
+/**
+ * RoutineRepository
+ *
+ * Accountability:
+ * - Hold the parsed routine once per process
+ * - Key it by the current SHA from {@link RoutineStore}
+ * - Coalesce concurrent loads into a single parse
+ * - Compile the {@link TimetableEngine} alongside, once per routine
+ * - Drop the cached copy when a sync promotes a new routine
+ *
+ * Reads may touch disk on a cold cache; call them off the main thread.
+ */
+public final class RoutineRepository {
+
+    private static final String TAG = "RoutineRepository";
+
+    private static volatile RoutineRepository instance;
+
+    private final Context appContext;
+
+    private Loaded cached;
+    private FutureTask<Loaded> inFlight;
+    private int generation;
+
+    private RoutineRepository(Context context) {
+        this.appContext = context.getApplicationContext();
+    }
+
+    public static RoutineRepository getInstance(Context context) {
+        RoutineRepository local = instance;
+        if (local == null) {
+            synchronized (RoutineRepository.class) {
+                local = instance;
+                if (local == null) {
+                    local = new RoutineRepository(context);
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    /* =========================
+       Public API
+       ========================= */
+
+    /**
+     * @return every present day, or null if the routine is unavailable
+     */
+    @Nullable
+    public Map<DayOfWeek, List<RoutineEntry>> getWeek() {
+        Loaded loaded = load();
+        return loaded != null ? loaded.week : null;
+    }
+
+    /**
+     * @return the day's entries (empty when absent), or null if unavailable
+     */
+    @Nullable
+    public List<RoutineEntry> getDay(DayOfWeek day) {
+        Loaded loaded = load();
+        if (loaded == null) {
+            return null;
+        }
+        List<RoutineEntry> entries = loaded.week.get(day);
+        return entries != null ? entries : Collections.<RoutineEntry>emptyList();
+    }
+
+    /**
+     * @return the routine compiled into periods, or null if unavailable
+     */
+    @Nullable
+    public TimetableEngine getTimetable() {
+        Loaded loaded = load();
+        return loaded != null ? loaded.timetable : null;
+    }
+
+    /**
+     * SHA of the routine currently held in memory, or null when cold.
+     */
+    @Nullable
+    public synchronized String getSha() {
+        return cached != null ? cached.sha : null;
+    }
+
+    /**
+     * Called when a sync promotes a routine with {@code newSha}.
+     */
+    public synchronized void invalidate(@Nullable String newSha) {
+        if (cached != null && newSha != null && newSha.equals(cached.sha)) {
+            return;
+        }
+        cached = null;
+        inFlight = null;
+        generation++;
+    }
+
+    /* =========================
+       Internal mechanics
+       ========================= */
+
+    @Nullable
+    private Loaded load() {
+        FutureTask<Loaded> task;
+        boolean owner = false;
+        int startedAt;
+
+        synchronized (this) {
+            if (cached != null) {
+                return cached;
+            }
+            if (inFlight == null) {
+                inFlight = new FutureTask<>(this::readFromDisk);
+                owner = true;
+            }
+            task = inFlight;
+            startedAt = generation;
+        }
+
+        if (owner) {
+            task.run();
+        }
+
+        Loaded result;
+        try {
+            result = task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Routine load failed", e.getCause());
+            result = null;
+        }
+
+        synchronized (this) {
+            if (inFlight == task) {
+                inFlight = null;
+            }
+            // An invalidate() during the load means this copy is already stale.
+            if (result != null && generation == startedAt) {
+                cached = result;
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private Loaded readFromDisk() {
+        String sha = RoutineManagerApi.readLocalSha(appContext);
+        Map<DayOfWeek, List<RoutineEntry>> week = RoutineManagerApi.readWeek(appContext);
+        if (week == null) {
+            return null;
+        }
+
+        Map<DayOfWeek, List<RoutineEntry>> frozen = new EnumMap<>(DayOfWeek.class);
+        for (Map.Entry<DayOfWeek, List<RoutineEntry>> day : week.entrySet()) {
+            frozen.put(day.getKey(), Collections.unmodifiableList(day.getValue()));
+        }
+        Map<DayOfWeek, List<RoutineEntry>> unmodifiable = Collections.unmodifiableMap(frozen);
+        return new Loaded(sha, unmodifiable, TimetableEngine.compile(sha, unmodifiable));
+    }
+
+    private static final class Loaded {
+        final String sha;
+        final Map<DayOfWeek, List<RoutineEntry>> week;
+        final TimetableEngine timetable;
+
+        Loaded(String sha, Map<DayOfWeek, List<RoutineEntry>> week, TimetableEngine timetable) {
+            this.sha = sha;
+            this.week = week;
+            this.timetable = timetable;
+        }
+    }
+}
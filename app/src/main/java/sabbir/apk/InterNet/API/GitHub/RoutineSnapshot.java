@@ -0,0 +1,245 @@
+package sabbir.apk.InterNet.API.GitHub;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import sabbir.apk.InterNet.Deta.RoutineEntry;
+
+/**
+ * RoutineSnapshot
+ *
+ * Versioned binary image of routine.json, compiled once per sync and
+ * memory-mapped by readers so "today's slots" needs no JSON parsing.
+ *
+ * Layout (big-endian ints):
+ *  header   magic, version, shaIndex, slotCount, stringCount
+ *  days     7 × (firstSlot, slotCount)       slotCount -1 = day absent
+ *  slots    slotCount × (code, name, instructor, room)   string index or -1
+ *  strings  (stringCount + 1) byte offsets, then UTF-8 bytes
+ */
+final class RoutineSnapshot {
+
+    private static final int MAGIC = 0x47424352; // "GBCR"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_INTS = 5;
+    private static final int DAY_COUNT = 7;
+    private static final int SLOT_INTS = 4;
+    private static final int NONE = -1;
+
+    private final ByteBuffer buffer;
+    private final int slotsOffset;
+    private final int stringOffsetsOffset;
+    private final int stringDataOffset;
+    private final int shaIndex;
+
+    private RoutineSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        if (buffer.limit() < HEADER_INTS * 4 || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a routine snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version " + buffer.getInt(4));
+        }
+
+        shaIndex = buffer.getInt(8);
+        int slotCount = buffer.getInt(12);
+        int stringCount = buffer.getInt(16);
+
+        slotsOffset = (HEADER_INTS + DAY_COUNT * 2) * 4;
+        stringOffsetsOffset = slotsOffset + slotCount * SLOT_INTS * 4;
+        stringDataOffset = stringOffsetsOffset + (stringCount + 1) * 4;
+
+        if (stringDataOffset > buffer.limit()) {
+            throw new IOException("Truncated snapshot");
+        }
+    }
+
+    /* =========================
+       Reading
+       ========================= */
+
+    static RoutineSnapshot open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer mapped =
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new RoutineSnapshot(mapped);
+        }
+    }
+
+    @Nullable
+    String sha() {
+        return string(shaIndex);
+    }
+
+    /**
+     * @return the day's entries, or null when the day is absent
+     */
+    @Nullable
+    List<RoutineEntry> readDay(DayOfWeek day) {
+        int dayOffset = (HEADER_INTS + (day.getValue() - 1) * 2) * 4;
+        int first = buffer.getInt(dayOffset);
+        int count = buffer.getInt(dayOffset + 4);
+
+        if (count == NONE) {
+            return null;
+        }
+
+        List<RoutineEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int record = slotsOffset + (first + i) * SLOT_INTS * 4;
+            entries.add(new RoutineEntry(
+                    string(buffer.getInt(record)),
+                    string(buffer.getInt(record + 4)),
+                    string(buffer.getInt(record + 8)),
+                    string(buffer.getInt(record + 12))
+            ));
+        }
+        return entries;
+    }
+
+    Map<DayOfWeek, List<RoutineEntry>> readWeek() {
+        Map<DayOfWeek, List<RoutineEntry>> week = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            List<RoutineEntry> entries = readDay(day);
+            if (entries != null) {
+                week.put(day, entries);
+            }
+        }
+        return week;
+    }
+
+    @Nullable
+    private String string(int index) {
+        if (index == NONE) {
+            return null;
+        }
+        int start = buffer.getInt(stringOffsetsOffset + index * 4);
+        int end = buffer.getInt(stringOffsetsOffset + (index + 1) * 4);
+
+        // Duplicate so concurrent readers never share a position.
+        ByteBuffer view = buffer.duplicate();
+        view.position(stringDataOffset + start);
+        byte[] bytes = new byte[end - start];
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /* =========================
+       Compiling
+       ========================= */
+
+    static void compile(Map<DayOfWeek, List<RoutineEntry>> week,
+                        @Nullable String sha,
+                        File out) throws IOException {
+
+        StringTable strings = new StringTable();
+        int shaIndex = strings.indexOf(sha);
+
+        int[] dayFirst = new int[DAY_COUNT];
+        int[] dayCount = new int[DAY_COUNT];
+        List<int[]> slots = new ArrayList<>();
+
+        for (DayOfWeek day : DayOfWeek.values()) {
+            int d = day.getValue() - 1;
+            List<RoutineEntry> entries = week.get(day);
+            if (entries == null) {
+                dayFirst[d] = 0;
+                dayCount[d] = NONE;
+                continue;
+            }
+
+            dayFirst[d] = slots.size();
+            dayCount[d] = entries.size();
+            for (RoutineEntry entry : entries) {
+                slots.add(new int[]{
+                        strings.indexOf(entry.subjectCode),
+                        strings.indexOf(entry.subjectName),
+                        strings.indexOf(entry.instructorName),
+                        strings.indexOf(entry.room)
+                });
+            }
+        }
+
+        try (DataOutputStream data = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(out, false)))) {
+
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(shaIndex);
+            data.writeInt(slots.size());
+            data.writeInt(strings.size());
+
+            for (int d = 0; d < DAY_COUNT; d++) {
+                data.writeInt(dayFirst[d]);
+                data.writeInt(dayCount[d]);
+            }
+
+            for (int[] slot : slots) {
+                for (int value : slot) {
+                    data.writeInt(value);
+                }
+            }
+
+            strings.writeTo(data);
+        }
+    }
+
+    /**
+     * Deduplicating UTF-8 string pool. Subject and instructor names repeat
+     * across the week, so each distinct value is stored once.
+     */
+    private static final class StringTable {
+
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+
+        int indexOf(@Nullable String value) {
+            if (value == null) {
+                return NONE;
+            }
+            Integer existing = indices.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            int index = values.size();
+            values.add(value.getBytes(StandardCharsets.UTF_8));
+            indices.put(value, index);
+            return index;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        void writeTo(DataOutputStream data) throws IOException {
+            int offset = 0;
+            data.writeInt(0);
+            for (byte[] value : values) {
+                offset += value.length;
+                data.writeInt(offset);
+            }
+            for (byte[] value : values) {
+                data.write(value);
+            }
+        }
+    }
+}
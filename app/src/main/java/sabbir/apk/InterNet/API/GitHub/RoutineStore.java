@@ -0,0 +1,487 @@
+package sabbir.apk.InterNet.API.GitHub;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RoutineStore
+ *
+ * Accountability:
+ * - Keep routine versions content-addressed by blob SHA, each with its
+ *   compiled snapshot
+ * - Point at the current version from a small manifest replaced in one
+ *   fsync'd rename; the version being replaced is never deleted first
+ * - Keep the last {@link #KEEP_VERSIONS} versions, so going back to one
+ *   (a reverted push, or {@link RoutineManagerApi#rollback}) needs no network
+ * - Evict older versions least-recently-current first, and by size budget
+ * - Migrate the legacy routine.json / .sha / .etag / routine.bin layout once
+ *
+ * objects/ only ever holds the exact bytes of the blob it is named after.
+ * A routine rebuilt from a pushed patch ({@link RoutinePatcher}) has the
+ * same content in a different encoding, so it is kept under derived/
+ * until a download brings the real blob.
+ *
+ * Storage:
+ * /data/data/<package>/files/github_cache/
+ *  ├── routine.manifest        {"current":sha,"etag":…,"versions":[newest … oldest],"derived":[…]}
+ *  ├── objects/<sha>           (routine JSON; shared with {@link DirectorySync})
+ *  ├── derived/<sha>           (patched routine standing in for blob <sha>)
+ *  └── snapshots/<sha>.bin     (compiled {@link RoutineSnapshot})
+ *
+ * Writers run on {@link RoutineManagerApi#runSerialized}; the class lock
+ * also guards the in-memory copy of the manifest readers use.
+ */
+final class RoutineStore {
+
+    private static final String TAG = "RoutineStore";
+
+    private static final String MANIFEST_FILE = "routine.manifest";
+    private static final String OBJECTS_DIR = "objects";
+    private static final String DERIVED_DIR = "derived";
+    private static final String SNAPSHOTS_DIR = "snapshots";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private static final String LEGACY_ROUTINE = "routine.json";
+    private static final String LEGACY_SHA = "routine.json.sha";
+    private static final String LEGACY_ETAG = "routine.json.etag";
+    private static final String LEGACY_SNAPSHOT = "routine.bin";
+
+    /** Versions kept for rollback, the current one included. */
+    private static final int KEEP_VERSIONS = 4;
+
+    /** Bytes of JSON plus snapshots older versions may use together. */
+    private static final long SIZE_BUDGET_BYTES = 2L * 1024 * 1024;
+
+    private static State state;
+
+    private RoutineStore() {
+        // utility class
+    }
+
+    static final class State {
+        @Nullable
+        final String current;
+        @Nullable
+        final String etag;
+        /** Most recently current first; {@link #current} is first when set. */
+        final List<String> versions;
+        /** Versions held under derived/ rather than as the blob itself. */
+        final List<String> derived;
+
+        State(@Nullable String current, @Nullable String etag, List<String> versions,
+              List<String> derived) {
+            this.current = current;
+            this.etag = etag;
+            this.versions = Collections.unmodifiableList(new ArrayList<>(versions));
+            this.derived = Collections.unmodifiableList(new ArrayList<>(derived));
+        }
+
+        /** True when the current version was rebuilt from a patch. */
+        boolean currentIsDerived() {
+            return current != null && derived.contains(current);
+        }
+    }
+
+    /* =========================
+       Reading
+       ========================= */
+
+    /**
+     * The first call reads the manifest and may migrate the legacy layout;
+     * {@link RoutineManagerApi#warmUp} makes it on the disk lane at startup.
+     */
+    static synchronized State state(Context context) {
+        if (state == null) {
+            state = load(context);
+        }
+        return state;
+    }
+
+    static File objectFile(Context context, String sha) {
+        return new File(objectsDir(context), sha);
+    }
+
+    /**
+     * @return where version {@code sha}'s JSON is kept: objects/, or
+     *         derived/ for a patched stand-in
+     */
+    static File routineFile(Context context, String sha) {
+        return state(context).derived.contains(sha)
+                ? derivedFile(context, sha)
+                : objectFile(context, sha);
+    }
+
+    static File snapshotFile(Context context, String sha) {
+        return new File(dir(context, SNAPSHOTS_DIR), sha + SNAPSHOT_SUFFIX);
+    }
+
+    static File objectsDir(Context context) {
+        return dir(context, OBJECTS_DIR);
+    }
+
+    /** True while {@code sha} is one of the kept routine versions. */
+    static boolean isRetained(Context context, String sha) {
+        return state(context).versions.contains(sha);
+    }
+
+    /* =========================
+       Writing
+       ========================= */
+
+    /**
+     * Moves a validated download and its compiled snapshot into the store
+     * and makes it current. Clears the ETag; a raw sync sets its own after.
+     * A patched stand-in for the same SHA is replaced by the real blob.
+     */
+    static synchronized void promote(Context context, File tmpJson,
+                                     @Nullable File tmpSnapshot, String sha) throws IOException {
+        store(tmpJson, objectFile(context, sha));
+        if (tmpSnapshot != null) {
+            store(tmpSnapshot, snapshotFile(context, sha));
+        }
+        boolean wasDerived = state(context).derived.contains(sha);
+        swap(context, sha, null, false);
+        if (wasDerived) {
+            derivedFile(context, sha).delete();
+        }
+    }
+
+    /**
+     * Like {@link #promote}, for a routine rebuilt from a patch: same content
+     * as blob {@code sha}, different bytes. Kept under derived/ so objects/
+     * stays content-addressed; it has no raw ETag of its own.
+     */
+    static synchronized void promoteDerived(Context context, File tmpJson,
+                                            @Nullable File tmpSnapshot, String sha) throws IOException {
+        store(tmpJson, derivedFile(context, sha));
+        if (tmpSnapshot != null) {
+            store(tmpSnapshot, snapshotFile(context, sha));
+        }
+        swap(context, sha, null, true);
+    }
+
+    /**
+     * Makes a kept version current again without touching the network.
+     *
+     * @return false if {@code sha} is not stored
+     */
+    static synchronized boolean activate(Context context, String sha) throws Exception {
+        File object = routineFile(context, sha);
+        if (!object.exists()) {
+            return false;
+        }
+
+        File snapshot = snapshotFile(context, sha);
+        if (!snapshot.exists()) {
+            File tmpSnapshot = new File(snapshot.getParentFile(), snapshot.getName() + TMP_SUFFIX);
+            try (InputStream in = new BufferedInputStream(new FileInputStream(object))) {
+                RoutineSnapshot.compile(RoutineParser.readWeek(in), sha, tmpSnapshot);
+            }
+            store(tmpSnapshot, snapshot);
+        }
+
+        State current = state(context);
+        swap(context, sha, sha.equals(current.current) ? current.etag : null,
+                current.derived.contains(sha));
+        return true;
+    }
+
+    static synchronized void setEtag(Context context, @Nullable String etag) {
+        State current = state(context);
+        try {
+            write(context, new State(current.current, etag, current.versions, current.derived));
+        } catch (Exception e) {
+            Log.e(TAG, "ETag write failed", e);
+        }
+    }
+
+    /**
+     * Drops a snapshot that no longer opens so the next read rebuilds it.
+     */
+    static void discardSnapshot(Context context, String sha) {
+        snapshotFile(context, sha).delete();
+    }
+
+    /* =========================
+       Internal mechanics
+       ========================= */
+
+    private static void swap(Context context, String sha, @Nullable String etag,
+                             boolean derived) throws IOException {
+        State current = state(context);
+
+        List<String> versions = new ArrayList<>(current.versions);
+        versions.remove(sha);
+        versions.add(0, sha);
+
+        List<String> evicted = new ArrayList<>();
+        while (versions.size() > KEEP_VERSIONS) {
+            evicted.add(versions.remove(versions.size() - 1));
+        }
+        // The current version always stays, whatever its size.
+        long used = 0;
+        for (int i = 0; i < versions.size(); i++) {
+            used += sizeOf(context, versions.get(i));
+            if (i > 0 && used > SIZE_BUDGET_BYTES) {
+                evicted.addAll(versions.subList(i, versions.size()));
+                versions = new ArrayList<>(versions.subList(0, i));
+                break;
+            }
+        }
+
+        List<String> derivedVersions = new ArrayList<>();
+        for (String version : versions) {
+            if (version.equals(sha) ? derived : current.derived.contains(version)) {
+                derivedVersions.add(version);
+            }
+        }
+
+        try {
+            write(context, new State(sha, etag, versions, derivedVersions));
+        } catch (Exception e) {
+            throw new IOException("Routine manifest commit failed", e);
+        }
+
+        for (String old : evicted) {
+            if (!DirectorySync.isReferenced(context, old)) {
+                objectFile(context, old).delete();
+            }
+            derivedFile(context, old).delete();
+            snapshotFile(context, old).delete();
+            Log.d(TAG, "Evicted routine version " + old);
+        }
+    }
+
+    private static void write(Context context, State next) throws Exception {
+        JSONArray versions = new JSONArray();
+        for (String sha : next.versions) {
+            versions.put(sha);
+        }
+        JSONObject root = new JSONObject().put("versions", versions);
+        if (!next.derived.isEmpty()) {
+            JSONArray derived = new JSONArray();
+            for (String sha : next.derived) {
+                derived.put(sha);
+            }
+            root.put("derived", derived);
+        }
+        if (next.current != null) {
+            root.put("current", next.current);
+        }
+        if (next.etag != null && !next.etag.isEmpty()) {
+            root.put("etag", next.etag);
+        }
+
+        File manifest = new File(RoutineManagerApi.ensureCacheDir(context), MANIFEST_FILE);
+        File tmpFile = new File(manifest.getParentFile(), MANIFEST_FILE + TMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+            out.write(root.toString().getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            out.getFD().sync();
+        }
+        if (!tmpFile.renameTo(manifest)) {
+            tmpFile.delete();
+            throw new IOException("Manifest rename failed");
+        }
+        state = next;
+    }
+
+    private static State load(Context context) {
+        File cacheDir = RoutineManagerApi.ensureCacheDir(context);
+        File manifest = new File(cacheDir, MANIFEST_FILE);
+
+        if (!manifest.exists()) {
+            return migrateLegacy(context, cacheDir);
+        }
+
+        try {
+            JSONObject root = new JSONObject(readUtf8(manifest));
+            JSONArray list = root.optJSONArray("versions");
+            List<String> versions = new ArrayList<>();
+            if (list != null) {
+                for (int i = 0; i < list.length(); i++) {
+                    versions.add(list.getString(i));
+                }
+            }
+            JSONArray derivedList = root.optJSONArray("derived");
+            List<String> derived = new ArrayList<>();
+            if (derivedList != null) {
+                for (int i = 0; i < derivedList.length(); i++) {
+                    derived.add(derivedList.getString(i));
+                }
+            }
+            String current = root.optString("current", "");
+            String etag = root.optString("etag", "");
+            return new State(
+                    current.isEmpty() ? null : current,
+                    etag.isEmpty() ? null : etag,
+                    versions,
+                    derived
+            );
+        } catch (Exception e) {
+            Log.e(TAG, "Routine manifest unreadable", e);
+            return new State(null, null, Collections.<String>emptyList(),
+                    Collections.<String>emptyList());
+        }
+    }
+
+    /**
+     * Copies routine.json (and its snapshot) from the pre-store layout into
+     * objects/ and snapshots/, keyed by the file's own blob SHA: the old code
+     * wrote the SHA and the body separately, so the recorded one may not
+     * match. The legacy files are deleted only once the manifest is
+     * committed; until then a failed migration leaves them in place and is
+     * retried on the next load.
+     */
+    private static State migrateLegacy(Context context, File cacheDir) {
+        State empty = new State(null, null, Collections.<String>emptyList(),
+                Collections.<String>emptyList());
+        File routine = new File(cacheDir, LEGACY_ROUTINE);
+        if (!routine.exists() || routine.length() == 0) {
+            return empty;
+        }
+
+        State migrated;
+        try {
+            String sha = GitBlobDigest.of(routine);
+            String recorded = readLine(new File(cacheDir, LEGACY_SHA));
+            boolean recordedMatches = sha.equals(recorded);
+            if (recorded != null && !recordedMatches) {
+                Log.w(TAG, "Legacy SHA " + recorded + " does not match routine " + sha);
+            }
+            // An ETag validates the bytes it was served with; keep it only
+            // when the recorded SHA says these are those bytes.
+            String etag = recordedMatches ? readLine(new File(cacheDir, LEGACY_ETAG)) : null;
+
+            copy(routine, objectFile(context, sha));
+            File legacySnapshot = new File(cacheDir, LEGACY_SNAPSHOT);
+            if (recordedMatches && legacySnapshot.exists()) {
+                copy(legacySnapshot, snapshotFile(context, sha));
+            }
+
+            migrated = new State(sha, etag, Collections.singletonList(sha),
+                    Collections.<String>emptyList());
+            write(context, migrated);
+        } catch (Exception e) {
+            Log.e(TAG, "Legacy routine migration failed", e);
+            return empty;
+        }
+
+        routine.delete();
+        new File(cacheDir, LEGACY_SHA).delete();
+        new File(cacheDir, LEGACY_ETAG).delete();
+        new File(cacheDir, LEGACY_SNAPSHOT).delete();
+        Log.i(TAG, "Migrated legacy routine " + migrated.current);
+        return migrated;
+    }
+
+    /**
+     * Syncs {@code from} to disk and renames it to {@code to}. An existing
+     * {@code to} already holds the same content, so {@code from} is dropped.
+     */
+    private static void store(File from, File to) throws IOException {
+        if (to.exists()) {
+            from.delete();
+            return;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(from, "rw")) {
+            file.getFD().sync();
+        }
+        if (!from.renameTo(to)) {
+            throw new IOException("Store rename failed: " + to.getName());
+        }
+    }
+
+    /**
+     * Copies {@code from} to {@code to} through a synced temp file, leaving
+     * {@code from} in place. An existing {@code to} is kept as is.
+     */
+    private static void copy(File from, File to) throws IOException {
+        if (to.exists()) {
+            return;
+        }
+        File tmpFile = new File(to.getParentFile(), to.getName() + TMP_SUFFIX);
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new FileInputStream(from);
+             FileOutputStream out = new FileOutputStream(tmpFile)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            out.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            tmpFile.delete();
+            throw e;
+        }
+        if (!tmpFile.renameTo(to)) {
+            tmpFile.delete();
+            throw new IOException("Copy rename failed: " + to.getName());
+        }
+    }
+
+        private static long sizeOf(Context context, String sha) {
+        return routineFile(context, sha).length() + snapshotFile(context, sha).length();
+    }
+
+    private static File derivedFile(Context context, String sha) {
+        return new File(dir(context, DERIVED_DIR), sha);
+    }
+
+    private static File dir(Context context, String name) {
+        File dir = new File(RoutineManagerApi.ensureCacheDir(context), name);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IllegalStateException(name + " dir creation failed");
+        }
+        return dir;
+    }
+
+    @Nullable
+    private static String readLine(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line = reader.readLine();
+            return line == null || line.isEmpty() ? null : line.trim();
+        } catch (IOException e) {
+            Log.w(TAG, "Read failed: " + file.getName(), e);
+            return null;
+        }
+    }
+
+    private static String readUtf8(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        try (InputStream in = new FileInputStream(file)) {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = in.read(bytes, offset, bytes.length - offset);
+                if (read == -1) {
+                    throw new IOException("Manifest truncated while reading");
+                }
+                offset += read;
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,417 @@
+package sabbir.apk.InterNet.API.GitHub;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.atwebpages.sabbir28.Core.TaskScheduler;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * RoutineSyncPipeline
+ *
+ * Accountability:
+ * - Fetch the routine straight from raw.githubusercontent.com (no API budget)
+ * - Fall back to the contents API only when the raw fetch fails
+ * - Download immediately when the remote SHA differs
+ * - Record how long each stage took
+ * - Mirror the rest of the routine's folder ({@link DirectorySync}) as a
+ *   separate, throttled background task
+ *
+ * Stages (raw):
+ *  download → conditional GET raw/{owner}/{repo}/HEAD/{path}; 304 means current
+ *  promote  → validate, compile the snapshot, replace routine.json and its .sha
+ *
+ * Stages (API fallback):
+ *  lookup   → GET /repos/{owner}/{repo}/contents/{path}
+ *  download → GET download_url into routine.json.tmp, verifying the blob SHA
+ *  promote  → as above
+ */
+public final class RoutineSyncPipeline {
+
+    private static final String TAG = "RoutineSyncPipeline";
+
+    static final String RAW_BASE = "https://raw.githubusercontent.com";
+
+    /** Where the published routine lives. */
+    public static final String ROUTINE_OWNER = "sabbir28";
+    public static final String ROUTINE_REPO = "sabbir28.github.io";
+    public static final String ROUTINE_PATH = "BMC/rootine.json";
+
+    public static final String SOURCE_RAW = "raw";
+    public static final String SOURCE_API = "api";
+
+    private static final String PREFS = "routine_sync";
+    private static final String KEY_LAST_CONFIRMED = "last_confirmed_at";
+    private static final String KEY_LAST_MIRRORED = "last_mirrored_at";
+
+    /**
+     * Least time between folder mirrors. Each one costs at least the
+     * conditional head check, even when nothing was pushed.
+     */
+    private static final long MIRROR_MIN_INTERVAL_MS = 15 * 60_000L;
+
+    /** One folder mirror at a time, whoever started it. */
+    private static final Object MIRROR_LOCK = new Object();
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private RoutineSyncPipeline() {
+        // utility class
+    }
+
+    public interface Callback {
+        void onComplete(@NonNull Result result);
+    }
+
+    public static final class Result {
+
+        public final boolean success;
+        public final boolean updated;
+        public final String detail;
+        /** {@link #SOURCE_RAW} or {@link #SOURCE_API}. */
+        public final String source;
+        /** Blob SHA the remote routine was found at; null when not reached. */
+        @Nullable
+        public final String remoteSha;
+
+        public final long lookupMs;
+        public final long downloadMs;
+        public final long promoteMs;
+        public final long totalMs;
+
+        Result(boolean success, boolean updated, String detail, String source,
+               @Nullable String remoteSha,
+               long lookupMs, long downloadMs, long promoteMs, long totalMs) {
+            this.success = success;
+            this.updated = updated;
+            this.detail = detail;
+            this.source = source;
+            this.remoteSha = remoteSha;
+            this.lookupMs = lookupMs;
+            this.downloadMs = downloadMs;
+            this.promoteMs = promoteMs;
+            this.totalMs = totalMs;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return detail
+                    + " via " + source
+                    + " lookup=" + lookupMs + "ms"
+                    + " download=" + downloadMs + "ms"
+                    + " promote=" + promoteMs + "ms"
+                    + " total=" + totalMs + "ms";
+        }
+    }
+
+    /**
+     * Sync the published routine ({@link #ROUTINE_PATH}).
+     * The callback is delivered on the main thread.
+     */
+    public static void run(Context context, Callback callback) {
+        run(context, ROUTINE_OWNER, ROUTINE_REPO, ROUTINE_PATH, callback);
+    }
+
+    /**
+     * Sync the routine file at {@code path} (e.g. "BMC/rootine.json").
+     * The callback is delivered on the main thread.
+     */
+    public static void run(
+            Context context,
+            String owner,
+            String repo,
+            String path,
+            Callback callback
+    ) {
+        Context appContext = context.getApplicationContext();
+
+        RoutineManagerApi.runSerialized(() -> {
+            Result result = runBlocking(appContext, owner, repo, path);
+            if (result.success) {
+                markConfirmed(appContext);
+            }
+            Log.i(TAG, result + " | rate: " + GitHubClient.rateLimitSummary());
+            MAIN.post(() -> callback.onComplete(result));
+        });
+    }
+
+    /**
+     * Mirrors the rest of the published routine's folder (other sections,
+     * exam schedules) on the NETWORK lane, outside the routine serializer,
+     * so syncs and pushed patches never queue behind it.
+     * <p>
+     * Files in the folder change independently of the routine, so whether
+     * anything moved is left to {@link DirectorySync}'s conditional head
+     * check; this only throttles to one mirror per
+     * {@link #MIRROR_MIN_INTERVAL_MS}. {@code done} runs on the main thread once the mirror has finished or
+     * was skipped; it is not called if the returned handle is cancelled.
+     */
+    public static TaskScheduler.Handle<DirectorySync.Result> mirrorFolder(
+            Context context,
+            Runnable done
+    ) {
+        Context appContext = context.getApplicationContext();
+
+        return TaskScheduler.submit(
+                TaskScheduler.Lane.NETWORK,
+                TaskScheduler.Priority.BACKGROUND,
+                () -> mirrorBlocking(appContext, ROUTINE_OWNER, ROUTINE_REPO, ROUTINE_PATH),
+                new TaskScheduler.Callback<DirectorySync.Result>() {
+                    @Override
+                    public void onSuccess(DirectorySync.Result result) {
+                        done.run();
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        Log.e(TAG, "Folder mirror failed", e);
+                        done.run();
+                    }
+                });
+    }
+
+    /**
+     * @return the mirror outcome, or null when it was skipped
+     */
+    @Nullable
+    private static DirectorySync.Result mirrorBlocking(
+            Context context,
+            String owner,
+            String repo,
+            String path
+    ) {
+        int slash = path.lastIndexOf('/');
+        if (slash <= 0) {
+            return null;
+        }
+
+        synchronized (MIRROR_LOCK) {
+            SharedPreferences prefs =
+                    context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+            long since = System.currentTimeMillis() - prefs.getLong(KEY_LAST_MIRRORED, 0L);
+            if (since >= 0 && since < MIRROR_MIN_INTERVAL_MS) {
+                Log.d(TAG, "Folder mirrored " + since / 1000 + "s ago, skipping");
+                return null;
+            }
+
+            String folder = path.substring(0, slash);
+            Set<String> exclude = Collections.singleton(path);
+
+            DirectorySync.Result mirror = DirectorySync.syncTreeBlocking(
+                    context, owner, repo, Collections.singletonList(folder), exclude);
+            if (mirror == null) {
+                mirror = DirectorySync.syncBlocking(context, owner, repo, folder, exclude);
+            }
+            if (mirror.success) {
+                prefs.edit().putLong(KEY_LAST_MIRRORED, System.currentTimeMillis()).apply();
+            }
+            Log.i(TAG, "Folder mirror: " + mirror);
+            return mirror;
+        }
+    }
+
+    /**
+     * Records that the cached routine is known to match the published one,
+     * either from a successful sync or from a push carrying the same SHA.
+     */
+    public static void markConfirmed(Context context) {
+        context.getSharedPreferences(PREFS, Context.MODE_PRIVATE)
+                .edit()
+                .putLong(KEY_LAST_CONFIRMED, System.currentTimeMillis())
+                .apply();
+    }
+
+    /**
+     * @return ms since the routine was last confirmed current, or
+     *         {@link Long#MAX_VALUE} if never
+     */
+    public static long millisSinceConfirmed(Context context) {
+        long at = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE)
+                .getLong(KEY_LAST_CONFIRMED, 0L);
+        long since = System.currentTimeMillis() - at;
+        return at == 0L || since < 0 ? Long.MAX_VALUE : since;
+    }
+
+    private static Result runBlocking(
+            Context context,
+            String owner,
+            String repo,
+            String path
+    ) {
+        Timer timer = new Timer();
+
+        if (RoutineManagerApi.isPatchDerived(context)) {
+            // A patched routine has no raw ETag to revalidate; the contents
+            // API compares blob SHAs instead, without downloading anything.
+            Result api = runViaApi(context, owner, repo, path, timer);
+            if (api.success) {
+                return api;
+            }
+        }
+
+        Result raw = runRaw(context, owner, repo, path, timer);
+        if (raw != null) {
+            return raw;
+        }
+        return runViaApi(context, owner, repo, path, timer);
+    }
+
+    /**
+     * @return the outcome, or null when the raw fetch failed and the
+     *         contents API should be tried instead
+     */
+    @Nullable
+    private static Result runRaw(
+            Context context,
+            String owner,
+            String repo,
+            String path,
+            Timer timer
+    ) {
+        String rawUrl = RAW_BASE + "/" + owner + "/" + repo + "/HEAD/" + path;
+
+        RoutineManagerApi.RawRoutine downloaded;
+        try {
+            downloaded = RoutineManagerApi.downloadRaw(context, rawUrl);
+        } catch (Exception e) {
+            Log.w(TAG, "Raw fetch failed, falling back to contents API", e);
+            return null;
+        }
+        timer.downloadDone();
+
+        if (downloaded == null) {
+            // 304: the CDN still serves the cached routine.
+            return timer.finish(true, false, "routine_current", SOURCE_RAW,
+                    RoutineManagerApi.readLocalSha(context));
+        }
+
+        if (RoutineManagerApi.isCurrent(context, downloaded.sha)
+                && !RoutineManagerApi.isPatchDerived(context)) {
+            // Same bytes under a new ETag (e.g. another CDN edge); keep it for next time.
+            downloaded.file.delete();
+            RoutineManagerApi.writeLocalEtag(context, downloaded.etag);
+            return timer.finish(true, false, "routine_current", SOURCE_RAW, downloaded.sha);
+        }
+
+        // Also where a patched stand-in gives way to the published blob.
+        try {
+            RoutineManagerApi.commit(context, downloaded.file, downloaded.sha);
+            RoutineManagerApi.writeLocalEtag(context, downloaded.etag);
+        } catch (Exception e) {
+            Log.e(TAG, "Routine promote failed", e);
+            return timer.finish(false, false, "promote_fail", SOURCE_RAW, downloaded.sha);
+        }
+        timer.promoteDone();
+
+        return timer.finish(true, true, "routine_sync", SOURCE_RAW, downloaded.sha);
+    }
+
+    private static Result runViaApi(
+            Context context,
+            String owner,
+            String repo,
+            String path,
+            Timer timer
+    ) {
+        JSONObject entry;
+        try {
+            String json = GitHubClient.get(
+                    "/repos/" + owner + "/" + repo + "/contents/" + path,
+                    null
+            );
+            entry = new JSONObject(json);
+        } catch (Exception e) {
+            Log.e(TAG, "Routine lookup failed", e);
+            return timer.finish(false, false, "lookup_fail", SOURCE_API, null);
+        }
+        timer.lookupDone();
+
+        String remoteSha = entry.optString("sha", "");
+        String downloadUrl = entry.optString("download_url", "");
+        if (remoteSha.isEmpty() || downloadUrl.isEmpty()) {
+            return timer.finish(false, false, "routine_missing", SOURCE_API, null);
+        }
+
+        if (RoutineManagerApi.isCurrent(context, remoteSha)) {
+            return timer.finish(true, false, "routine_current", SOURCE_API, remoteSha);
+        }
+
+        if (RoutineManagerApi.activateStored(context, remoteSha)) {
+            timer.promoteDone();
+            return timer.finish(true, true, "routine_restored", SOURCE_API, remoteSha);
+        }
+
+        File downloaded;
+        try {
+            downloaded = RoutineManagerApi.downloadRoutine(
+                    context,
+                    downloadUrl,
+                    remoteSha,
+                    entry.optLong("size", -1)
+            );
+        } catch (Exception e) {
+            Log.e(TAG, "Routine download failed", e);
+            return timer.finish(false, false, "download_fail", SOURCE_API, remoteSha);
+        }
+        timer.downloadDone();
+
+        try {
+            RoutineManagerApi.commit(context, downloaded, remoteSha);
+        } catch (Exception e) {
+            Log.e(TAG, "Routine promote failed", e);
+            return timer.finish(false, false, "promote_fail", SOURCE_API, remoteSha);
+        }
+        timer.promoteDone();
+
+        return timer.finish(true, true, "routine_sync", SOURCE_API, remoteSha);
+    }
+
+    private static final class Timer {
+
+        private final long start = SystemClock.elapsedRealtime();
+        private long mark = start;
+
+        private long lookupMs;
+        private long downloadMs;
+        private long promoteMs;
+
+        void lookupDone() {
+            lookupMs = lap();
+        }
+
+        void downloadDone() {
+            downloadMs = lap();
+        }
+
+        void promoteDone() {
+            promoteMs = lap();
+        }
+
+        Result finish(boolean success, boolean updated, String detail, String source,
+                      @Nullable String remoteSha) {
+            long total = SystemClock.elapsedRealtime() - start;
+            return new Result(success, updated, detail, source, remoteSha,
+                    lookupMs, downloadMs, promoteMs, total);
+        }
+
+        private long lap() {
+            long now = SystemClock.elapsedRealtime();
+            long elapsed = now - mark;
+            mark = now;
+            return elapsed;
+        }
+    }
+}
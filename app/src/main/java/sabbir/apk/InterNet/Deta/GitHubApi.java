@@ -4,8 +4,9 @@ import android.util.Base64;
 
 import java.nio.charset.StandardCharsets;
 
+import com.atwebpages.sabbir28.Core.TaskScheduler;
+
 import sabbir.apk.InterNet.API.GitHub.GitHubClient;
-import sabbir.apk.InterNet.API.Thread.GitHubExecutor;
 
 /**
  * GitHub API façade
@@ -20,9 +21,11 @@ public final class GitHubApi {
             String owner,
             String repo,
             String token,
-            GitHubExecutor.Callback callback
+            TaskScheduler.Callback<String> callback
     ) {
-        GitHubExecutor.execute(
+        TaskScheduler.submit(
+                TaskScheduler.Lane.NETWORK,
+                TaskScheduler.Priority.USER_VISIBLE,
                 () -> GitHubClient.get(
                         "/repos/" + owner + "/" + repo,
                         token
@@ -41,7 +44,7 @@ public final class GitHubApi {
             String repo,
             String path,
             String token,
-            GitHubExecutor.Callback callback
+            TaskScheduler.Callback<String> callback
     ) {
         String normalizedPath = (path == null || path.isEmpty())
                 ? ""
@@ -50,7 +53,9 @@ public final class GitHubApi {
         String endpoint =
                 "/repos/" + owner + "/" + repo + "/contents" + normalizedPath;
 
-        GitHubExecutor.execute(
+        TaskScheduler.submit(
+                TaskScheduler.Lane.NETWORK,
+                TaskScheduler.Priority.USER_VISIBLE,
                 () -> GitHubClient.get(endpoint, token),
                 callback
         );
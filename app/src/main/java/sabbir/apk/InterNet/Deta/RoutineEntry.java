@@ -0,0 +1,31 @@
+package sabbir.apk.InterNet.Deta;
+
+import androidx.annotation.Nullable;
+
+/**
+ * One slot of routine.json as published, before any display fallbacks.
+ * Any field may be null when the source omits it or stores JSON null.
+ */
+public final class RoutineEntry {
+
+    @Nullable public final String subjectCode;
+    @Nullable public final String subjectName;
+    @Nullable public final String instructorName;
+    @Nullable public final String room;
+
+    public RoutineEntry(
+            @Nullable String subjectCode,
+            @Nullable String subjectName,
+            @Nullable String instructorName,
+            @Nullable String room
+    ) {
+        this.subjectCode = subjectCode;
+        this.subjectName = subjectName;
+        this.instructorName = instructorName;
+        this.room = room;
+    }
+
+    public static RoutineEntry free() {
+        return new RoutineEntry(null, null, null, null);
+    }
+}
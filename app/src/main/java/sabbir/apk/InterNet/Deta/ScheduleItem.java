@@ -1,9 +1,13 @@
 package sabbir.apk.InterNet.Deta;
 
+import java.time.DayOfWeek;
 import java.time.LocalTime;
 
 public class ScheduleItem {
 
+    public DayOfWeek day;
+    /** Period index within {@link #day}. */
+    public int slot;
     public String subject;
     public String instructor;
     public LocalTime start;
@@ -17,4 +21,9 @@ public class ScheduleItem {
     public boolean isPast(LocalTime now) {
         return now.isAfter(end);
     }
+
+    /** Same for the same day and period, whatever the subject. */
+    public long stableId() {
+        return (long) day.getValue() << 8 | slot;
+    }
 }
@@ -0,0 +1,256 @@
+package sabbir.apk.InterNet.Sync;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.os.Build;
+import android.os.PersistableBundle;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.Nullable;
+
+import com.atwebpages.sabbir28.Core.LatencyHistograms;
+import com.atwebpages.sabbir28.Core.TaskScheduler;
+
+import java.io.File;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import sabbir.apk.InterNet.API.GitHub.GitHubClient;
+import sabbir.apk.InterNet.API.GitHub.RoutineManagerApi;
+import sabbir.apk.InterNet.API.GitHub.RoutineSyncPipeline;
+import sabbir.apk.Widget.RoutineWidgetProvider;
+
+/**
+ * RoutineSyncJob
+ *
+ * Accountability:
+ * - Keep the routine fresh without the app being opened (widget-only users)
+ * - Run the conditional {@link RoutineSyncPipeline}; an unchanged routine
+ *   costs one 304 from the raw CDN
+ * - Refresh widgets when a new routine is promoted
+ * - Mirror the routine's folder before finishing (throttled by the pipeline)
+ * - Run once, soon, when a push announces a new routine SHA
+ *
+ * Constraints:
+ * - Any network; unmetered only once the cached routine is large
+ * - Battery not low (API 26+)
+ * - Period of 6 h plus a random 0–2 h per schedule, so devices on campus
+ *   do not all wake at the same minute
+ */
+public final class RoutineSyncJob extends JobService {
+
+    private static final String TAG = "RoutineSyncJob";
+
+    private static final int PERIODIC_JOB_ID = 2801;
+    private static final int PUSH_JOB_ID = 2802;
+
+    private static final String EXTRA_EXPECTED_SHA = "expected_sha";
+    /** Routine SHA cached when the push arrived; the CDN may keep serving it. */
+    private static final String EXTRA_PREVIOUS_SHA = "previous_sha";
+    private static final String EXTRA_FIRST_SEEN_AT = "first_seen_at";
+
+    /** Spreads a campus-wide push over a couple of minutes of CDN traffic. */
+    private static final long PUSH_MAX_DELAY_MS = TimeUnit.MINUTES.toMillis(2);
+    /** raw.githubusercontent.com may serve the old file for ~5 minutes after a push. */
+    private static final long PUSH_BACKOFF_MS = TimeUnit.SECONDS.toMillis(30);
+    /** A push job gives up this long after the push, published or not. */
+    private static final long PUSH_RETRY_WINDOW_MS = TimeUnit.HOURS.toMillis(1);
+
+    private static final long BASE_PERIOD_MS = TimeUnit.HOURS.toMillis(6);
+    private static final long PERIOD_JITTER_MS = TimeUnit.HOURS.toMillis(2);
+    private static final long FLEX_MS = TimeUnit.HOURS.toMillis(1);
+
+    /** Above this the sync waits for Wi-Fi (or another unmetered network). */
+    private static final long LARGE_ROUTINE_BYTES = 256 * 1024;
+
+    /** Folder mirrors still holding a job open, by job id; main thread only. */
+    private final SparseArray<TaskScheduler.Handle<?>> mirrors = new SparseArray<>();
+
+    /* ========== Scheduling ========== */
+
+    /**
+     * Schedules the periodic sync unless it is already pending. Safe to call
+     * on every launch; an existing schedule keeps its jitter.
+     */
+    public static void schedulePeriodic(Context context) {
+        JobScheduler scheduler =
+                (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) {
+            return;
+        }
+
+        for (JobInfo pending : scheduler.getAllPendingJobs()) {
+            if (pending.getId() == PERIODIC_JOB_ID) {
+                return;
+            }
+        }
+
+        long period = BASE_PERIOD_MS + ThreadLocalRandom.current().nextLong(PERIOD_JITTER_MS);
+
+        JobInfo.Builder builder = new JobInfo.Builder(
+                PERIODIC_JOB_ID,
+                new ComponentName(context, RoutineSyncJob.class)
+        )
+                .setRequiredNetworkType(networkTypeFor(context))
+                .setPersisted(true);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            builder.setPeriodic(period, FLEX_MS);
+        } else {
+            builder.setPeriodic(period);
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            builder.setRequiresBatteryNotLow(true);
+        }
+
+        int result = scheduler.schedule(builder.build());
+        Log.i(TAG, "Periodic sync scheduled every " + TimeUnit.MILLISECONDS.toMinutes(period)
+                + " min: " + (result == JobScheduler.RESULT_SUCCESS ? "ok" : "failed"));
+    }
+
+    /**
+     * Schedules a one-off sync after a push announced a new routine. A
+     * pending push job is replaced, so a burst of edits costs one sync.
+     *
+     * @param expectedSha the announced blob SHA; the job retries with
+     *                    backoff while the CDN still serves the previous
+     *                    routine, for at most {@link #PUSH_RETRY_WINDOW_MS}
+     */
+    public static void scheduleForPush(Context context, @Nullable String expectedSha) {
+        JobScheduler scheduler =
+                (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) {
+            return;
+        }
+
+        PersistableBundle extras = new PersistableBundle();
+        if (expectedSha != null) {
+            extras.putString(EXTRA_EXPECTED_SHA, expectedSha);
+        }
+        String previousSha = RoutineManagerApi.readLocalSha(context);
+        if (previousSha != null) {
+            extras.putString(EXTRA_PREVIOUS_SHA, previousSha);
+        }
+        extras.putLong(EXTRA_FIRST_SEEN_AT, System.currentTimeMillis());
+
+        JobInfo.Builder builder = new JobInfo.Builder(
+                PUSH_JOB_ID,
+                new ComponentName(context, RoutineSyncJob.class)
+        )
+                .setRequiredNetworkType(networkTypeFor(context))
+                .setMinimumLatency(ThreadLocalRandom.current().nextLong(PUSH_MAX_DELAY_MS))
+                .setBackoffCriteria(PUSH_BACKOFF_MS, JobInfo.BACKOFF_POLICY_EXPONENTIAL)
+                .setExtras(extras)
+                .setPersisted(true);
+
+        int result = scheduler.schedule(builder.build());
+        Log.i(TAG, "Push sync scheduled for " + expectedSha + ": "
+                + (result == JobScheduler.RESULT_SUCCESS ? "ok" : "failed"));
+    }
+
+    static int networkTypeFor(Context context) {
+        File routine = RoutineManagerApi.getRoutineFile(context);
+        return routine.length() > LARGE_ROUTINE_BYTES
+                ? JobInfo.NETWORK_TYPE_UNMETERED
+                : JobInfo.NETWORK_TYPE_ANY;
+    }
+
+    /* ========== JobService ========== */
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        GitHubClient.init(this);
+
+        Context appContext = getApplicationContext();
+        TaskScheduler.run(
+                TaskScheduler.Lane.DISK,
+                TaskScheduler.Priority.BACKGROUND,
+                () -> LatencyHistograms.init(appContext)
+        );
+
+        RoutineSyncPipeline.run(appContext, result -> {
+            Log.i(TAG, "Job " + params.getJobId() + ": " + result);
+            if (result.updated) {
+                RoutineWidgetProvider.updateAllWidgets(appContext);
+            }
+
+            // Periodic jobs come back on their own.
+            boolean reschedule = params.getJobId() == PUSH_JOB_ID
+                    && shouldRetryPush(params.getExtras(), result);
+            if (!result.success) {
+                jobFinished(params, reschedule);
+                return;
+            }
+
+            // The job stays open until the mirror is done, so the process is
+            // not reclaimed mid-download.
+            boolean finalReschedule = reschedule;
+            mirrors.put(params.getJobId(), RoutineSyncPipeline.mirrorFolder(appContext, () -> {
+                mirrors.remove(params.getJobId());
+                jobFinished(params, finalReschedule);
+            }));
+        });
+        return true;
+    }
+
+    /**
+     * A push job retries while the sync fails or the CDN still serves the
+     * routine from before the push. It stops once the announced SHA is
+     * synced, once another valid SHA is published instead (a later edit
+     * superseded it), or when the retry window has passed.
+     */
+    private static boolean shouldRetryPush(PersistableBundle extras,
+                                           RoutineSyncPipeline.Result result) {
+        // Jobs persisted without a timestamp get this one attempt.
+        long firstSeenAt = extras.getLong(EXTRA_FIRST_SEEN_AT, 0L);
+        long age = System.currentTimeMillis() - firstSeenAt;
+        if (firstSeenAt == 0L || age < 0 || age > PUSH_RETRY_WINDOW_MS) {
+            Log.w(TAG, "Push sync giving up after " + TimeUnit.MILLISECONDS.toMinutes(age) + " min");
+            return false;
+        }
+
+        if (!result.success) {
+            return true;
+        }
+
+        String expectedSha = extras.getString(EXTRA_EXPECTED_SHA);
+        String remoteSha = result.remoteSha;
+        if (expectedSha == null || expectedSha.equals(remoteSha)) {
+            return false;
+        }
+        if (remoteSha == null || !isBlobSha(remoteSha)) {
+            return true;
+        }
+        // Still the pre-push routine: the CDN lags behind the push.
+        return remoteSha.equals(extras.getString(EXTRA_PREVIOUS_SHA));
+    }
+
+    private static boolean isBlobSha(String value) {
+        if (value.length() != 40) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        TaskScheduler.Handle<?> mirror = mirrors.get(params.getJobId());
+        if (mirror != null) {
+            mirrors.remove(params.getJobId());
+            mirror.cancel(true);
+        }
+        // The pipeline is serialized and idempotent; let the system retry later.
+        return true;
+    }
+}
@@ -14,11 +14,12 @@ import androidx.annotation.NonNull;
 import androidx.core.app.NotificationCompat;
 import androidx.core.app.NotificationManagerCompat;
 
+import com.atwebpages.sabbir28.Core.HttpEngine;
+import com.atwebpages.sabbir28.Core.TaskScheduler;
+
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 
 import sabbir.apk.InterNet.Deta.DownloadListener;
 
@@ -26,6 +27,7 @@ public final class DownloadService extends Service {
 
     private static final String CHANNEL_ID = "download_channel";
     private static final int NOTIFY_ID = 1001;
+    private static final int DOWNLOAD_READ_TIMEOUT_MS = 60_000;
 
     private DownloadListener listener;
 
@@ -92,21 +94,27 @@ public final class DownloadService extends Service {
 
     public void startDownload(String url, String fileName) {
 
-        new Thread(() -> {
+        TaskScheduler.run(TaskScheduler.Lane.TRANSFER, TaskScheduler.Priority.USER_VISIBLE, () -> {
             try {
-                HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
-
-                conn.connect();
-
-                long totalBytes = conn.getContentLengthLong();
+                // APKs are already zip-compressed; ask for identity so the
+                // Content-Length stays usable for progress.
+                HttpEngine.Request request = HttpEngine.Request.get(url)
+                        .identityEncoding()
+                        .readTimeout(DOWNLOAD_READ_TIMEOUT_MS);
 
                 File outFile = new File(getExternalFilesDir(null), fileName);
 
+                byte[] buffer = HttpEngine.acquireBuffer();
                 try (
-                        InputStream is = conn.getInputStream();
+                        HttpEngine.Call call = HttpEngine.open(request);
                         FileOutputStream fos = new FileOutputStream(outFile)
                 ) {
-                    byte[] buffer = new byte[8192];
+                    if (!call.isSuccessful()) {
+                        throw new IllegalStateException("HTTP " + call.code());
+                    }
+
+                    long totalBytes = call.contentLength();
+                    InputStream is = call.body();
                     long downloaded = 0;
                     int read;
 
@@ -114,11 +122,13 @@ public final class DownloadService extends Service {
                         fos.write(buffer, 0, read);
                         downloaded += read;
 
-                        int percent =
-                                (int) ((downloaded * 100) / totalBytes);
+                        int percent = totalBytes > 0
+                                ? (int) ((downloaded * 100) / totalBytes)
+                                : 0;
 
-                        long remaining =
-                                totalBytes - downloaded;
+                        long remaining = totalBytes > 0
+                                ? totalBytes - downloaded
+                                : -1;
 
                         updateNotification(percent);
 
@@ -138,6 +148,8 @@ public final class DownloadService extends Service {
 
                     stopSelf();
 
+                } finally {
+                    HttpEngine.releaseBuffer(buffer);
                 }
 
             } catch (Exception e) {
@@ -145,7 +157,7 @@ public final class DownloadService extends Service {
                     listener.onError(e);
                 }
             }
-        }).start();
+        });
     }
 
 }
@@ -3,25 +3,25 @@ package sabbir.apk.InterNet.Updater;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import androidx.annotation.NonNull;
+
+import com.atwebpages.sabbir28.Core.TaskScheduler;
+
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.security.MessageDigest;
 import java.time.Duration;
 import java.time.Instant;
 
-import sabbir.apk.InterNet.API.Thread.GitHubExecutor;
+import sabbir.apk.InterNet.API.GitHub.GitHubClient;
 import sabbir.apk.InterNet.Deta.ReleaseAssetInfo;
 
 public final class Updater {
 
-    private static final String API_URL = "https://api.github.com/repos/sabbir28/GBC/releases/latest";
+    private static final String RELEASES_ENDPOINT = "/repos/sabbir28/GBC/releases/latest";
 
     private static final String PREFS = "updater_prefs";
     private static final String KEY_HASH = "apk_sha256";
@@ -60,7 +60,9 @@ public final class Updater {
             Context context,
             Sha256Callback callback
     ) {
-        GitHubExecutor.execute(
+        TaskScheduler.submit(
+                TaskScheduler.Lane.DISK,
+                TaskScheduler.Priority.BACKGROUND,
                 () -> {
                     String apkPath = context.getApplicationInfo().sourceDir;
 
@@ -83,12 +85,9 @@ public final class Updater {
                         }
 
                         return hex.toString();
-
-                    } catch (Exception e) {
-                        throw e;
                     }
                 },
-                new GitHubExecutor.Callback() {
+                new TaskScheduler.Callback<String>() {
 
                     @Override
                     public void onSuccess(String result) {
@@ -96,7 +95,7 @@ public final class Updater {
                     }
 
                     @Override
-                    public void onError(Exception e) {
+                    public void onError(@NonNull Exception e) {
                         callback.onFailure(e);
                     }
                 }
@@ -109,112 +108,63 @@ public final class Updater {
         void onFailure(Exception e);
     }
 
+    /**
+     * Runs at background priority so it never delays a screen's own loads.
+     */
     public static void fetchLatestApkAssetAsync(
             ReleaseAssetCallback callback
     ) {
-        GitHubExecutor.execute(
+        TaskScheduler.submit(
+                TaskScheduler.Lane.NETWORK,
+                TaskScheduler.Priority.BACKGROUND,
                 () -> {
-                    HttpURLConnection conn = (HttpURLConnection) new URL(API_URL).openConnection();
-
-                    conn.setRequestMethod("GET");
-                    conn.setConnectTimeout(10_000);
-                    conn.setReadTimeout(10_000);
-
-                    try (BufferedReader reader = new BufferedReader(
-                                         new InputStreamReader(
-                                                 conn.getInputStream()
-                                         )
-                                 )) {
-
-                        StringBuilder json = new StringBuilder();
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            json.append(line);
+                    JSONObject root =
+                            new JSONObject(GitHubClient.get(RELEASES_ENDPOINT, null, true));
+
+                    JSONArray assets =
+                            root.getJSONArray("assets");
+
+                    for (int i = 0; i < assets.length(); i++) {
+                        JSONObject asset =
+                                assets.getJSONObject(i);
+
+                        if (!asset.getString("name")
+                                .endsWith(".apk")) {
+                            continue;
                         }
 
-                        JSONObject root =
-                                new JSONObject(json.toString());
-
-                        JSONArray assets =
-                                root.getJSONArray("assets");
-
-                        for (int i = 0; i < assets.length(); i++) {
-                            JSONObject asset =
-                                    assets.getJSONObject(i);
-
-                            if (!asset.getString("name")
-                                    .endsWith(".apk")) {
-                                continue;
-                            }
-
-                            String digest =
-                                    asset.optString("digest", "");
-
-                            if (!digest.startsWith("sha256:")) {
-                                continue;
-                            }
-
-                            String sha256 =
-                                    digest.replace("sha256:", "")
-                                            .trim();
-
-                            return new JSONObject()
-                                    .put("sha256", sha256)
-                                    .put(
-                                            "url",
-                                            asset.optString(
-                                                    "browser_download_url",
-                                                    null
-                                            )
-                                    )
-                                    .put(
-                                            "download_count",
-                                            asset.optInt(
-                                                    "download_count",
-                                                    0
-                                            )
-                                    )
-                                    .put(
-                                            "updated_at",
-                                            asset.optString(
-                                                    "updated_at",
-                                                    null
-                                            )
-                                    )
-                                    .toString();
+                        String digest =
+                                asset.optString("digest", "");
+
+                        if (!digest.startsWith("sha256:")) {
+                            continue;
                         }
 
-                        throw new IllegalStateException(
-                                "No APK asset with SHA256 found"
-                        );
+                        String sha256 =
+                                digest.replace("sha256:", "")
+                                        .trim();
 
-                    } finally {
-                        conn.disconnect();
+                        return new ReleaseAssetInfo(
+                                sha256,
+                                asset.optString("browser_download_url", null),
+                                asset.optInt("download_count", 0),
+                                asset.optString("updated_at", null)
+                        );
                     }
+
+                    throw new IllegalStateException(
+                            "No APK asset with SHA256 found"
+                    );
                 },
-                new GitHubExecutor.Callback() {
+                new TaskScheduler.Callback<ReleaseAssetInfo>() {
 
                     @Override
-                    public void onSuccess(String result) {
-                        try {
-                            JSONObject json = new JSONObject(result);
-
-                            callback.onSuccess(
-                                    new ReleaseAssetInfo(
-                                            json.getString("sha256"),
-                                            json.optString("url", null),
-                                            json.optInt("download_count", 0),
-                                            json.optString("updated_at", null)
-                                    )
-                            );
-
-                        } catch (Exception e) {
-                            callback.onFailure(e);
-                        }
+                    public void onSuccess(ReleaseAssetInfo result) {
+                        callback.onSuccess(result);
                     }
 
                     @Override
-                    public void onError(Exception e) {
+                    public void onError(@NonNull Exception e) {
                         callback.onFailure(e);
                     }
                 }
@@ -17,17 +17,22 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.atwebpages.sabbir28.Auth;
+import com.atwebpages.sabbir28.Core.LatencyHistograms;
+import com.atwebpages.sabbir28.Core.TaskScheduler;
 import com.atwebpages.sabbir28.Core.TokenManager;
 import com.atwebpages.sabbir28.Core.UserManager;
 import com.google.firebase.analytics.FirebaseAnalytics;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.List;
+import java.util.Locale;
+
+import sabbir.apk.InterNet.API.GitHub.GitHubClient;
 import sabbir.apk.InterNet.API.GitHub.RoutineManagerApi;
-import sabbir.apk.InterNet.API.Thread.GitHubExecutor;
-import sabbir.apk.InterNet.Deta.GitHubApi;
+import sabbir.apk.InterNet.API.GitHub.RoutineSyncPipeline;
+import sabbir.apk.InterNet.Sync.RoutineSyncJob;
 import sabbir.apk.R;
 import sabbir.apk.UI.Auth.LoginActivity;
 import sabbir.apk.UI.HomeActivity;
@@ -37,11 +42,11 @@ public final class MainActivity extends AppCompatActivity {
 
     private static final String TAG = "MainActivity";
     private static final long MIN_SPLASH_MS = 1500L;
-
-    private static final String GITHUB_OWNER = "sabbir28";
-    private static final String GITHUB_REPO = "sabbir28.github.io";
-    private static final String ROUTINE_PATH = "/BMC";
-    private static final String ROUTINE_FILE = "rootine.json";
+    /**
+     * Skip the launch-time sync when the routine was confirmed this recently;
+     * pushes and the periodic job keep it fresh in between.
+     */
+    private static final long LAUNCH_SYNC_FRESH_MS = 2L * 60 * 60 * 1000; // 2 hours
 
     private final Handler handler = new Handler(Looper.getMainLooper());
     private FirebaseAnalytics analytics;
@@ -58,7 +63,11 @@ public final class MainActivity extends AppCompatActivity {
         analytics = FirebaseAnalytics.getInstance(this);
         tokenManager = new TokenManager(this);
         userManager = new UserManager(this);
+        GitHubClient.init(this);
+        RoutineManagerApi.warmUp(this);
+        schedulePeriodicSync();
         logAppLaunch();
+        loadLatencyHistograms();
 
         long start = System.currentTimeMillis();
 
@@ -111,13 +120,29 @@ public final class MainActivity extends AppCompatActivity {
 
     private void handleOfflineFlow() {
         logNetworkStatus(false);
-        boolean exists = RoutineManagerApi.routineFileExists(getApplicationContext());
-        if (!exists) {
-            goNoInternet();
-            return;
-        }
-        Toast.makeText(this, "No internet. Offline mode.", Toast.LENGTH_SHORT).show();
-        navigateHomeDelayed();
+        Context appContext = getApplicationContext();
+        TaskScheduler.submit(
+                TaskScheduler.Lane.DISK,
+                TaskScheduler.Priority.IMMEDIATE,
+                () -> RoutineManagerApi.routineFileExists(appContext),
+                exists -> {
+                    if (!exists) {
+                        goNoInternet();
+                        return;
+                    }
+                    Toast.makeText(this, "No internet. Offline mode.", Toast.LENGTH_SHORT).show();
+                    navigateHomeDelayed();
+                });
+    }
+
+    /** Sizing the job's network constraint reads the routine store. */
+    private void schedulePeriodicSync() {
+        Context appContext = getApplicationContext();
+        TaskScheduler.run(
+                TaskScheduler.Lane.DISK,
+                TaskScheduler.Priority.BACKGROUND,
+                () -> RoutineSyncJob.schedulePeriodic(appContext)
+        );
     }
 
     private void goLogin() {
@@ -155,50 +180,23 @@ public final class MainActivity extends AppCompatActivity {
     }
 
     private void triggerGitHubSync() {
-        GitHubApi.fetchRepoInfo(GITHUB_OWNER, GITHUB_REPO, null, new GitHubExecutor.Callback() {
-            @Override
-            public void onSuccess(String result) {
-                fetchRoutineFile();
-            }
-            @Override
-            public void onError(Exception e) {
-                Log.e(TAG, "GitHub metadata failed", e);
-                logSync(false, "metadata_fail");
-            }
-        });
-    }
-
-    private void fetchRoutineFile() {
-        GitHubApi.fetchRepoContents(GITHUB_OWNER, GITHUB_REPO, ROUTINE_PATH, null, new GitHubExecutor.Callback() {
-            @Override
-            public void onSuccess(String result) {
-                processFiles(result);
-            }
-            @Override
-            public void onError(Exception e) {
-                Log.e(TAG, "GitHub contents failed", e);
-                logSync(false, "contents_fail");
-            }
-        });
-    }
-
-    private void processFiles(@NonNull String json) {
-        try {
-            JSONArray files = new JSONArray(json);
-            for (int i = 0; i < files.length(); i++) {
-                JSONObject file = files.getJSONObject(i);
-                if (!"file".equals(file.optString("type"))) continue;
-                if (ROUTINE_FILE.equals(file.optString("name"))) {
-                    RoutineManagerApi.sync(getApplicationContext(), file);
-                    logSync(true, "routine_sync");
-                    return;
-                }
-            }
-            logSync(false, "routine_missing");
-        } catch (Exception e) {
-            Log.e(TAG, "Parsing failed", e);
-            logSync(false, "parse_fail");
-        }
+        Context appContext = getApplicationContext();
+        TaskScheduler.submit(
+                TaskScheduler.Lane.DISK,
+                TaskScheduler.Priority.USER_VISIBLE,
+                () -> RoutineManagerApi.routineFileExists(appContext)
+                        && RoutineSyncPipeline.millisSinceConfirmed(appContext) < LAUNCH_SYNC_FRESH_MS,
+                fresh -> {
+                    if (fresh) {
+                        Log.d(TAG, "Routine recently confirmed, skipping launch sync");
+                        logSync(true, "routine_fresh");
+                        return;
+                    }
+                    RoutineSyncPipeline.run(appContext, result -> {
+                        logSync(result.success, result.detail);
+                        logSyncTiming(result);
+                    });
+                });
     }
 
     private void logAppLaunch() {
@@ -220,6 +218,49 @@ public final class MainActivity extends AppCompatActivity {
         analytics.logEvent("routine_sync", b);
     }
 
+    private void logSyncTiming(RoutineSyncPipeline.Result result) {
+        Bundle b = new Bundle();
+        b.putString("detail", result.detail);
+        b.putString("source", result.source);
+        b.putLong("lookup_ms", result.lookupMs);
+        b.putLong("download_ms", result.downloadMs);
+        b.putLong("promote_ms", result.promoteMs);
+        b.putLong("total_ms", result.totalMs);
+        analytics.logEvent("routine_sync_timing", b);
+    }
+
+    /**
+     * One event per endpoint, network and phase for each finished day,
+     * instead of one per request.
+     */
+    /** Reads the saved histograms on the disk lane, then reports finished days. */
+    private void loadLatencyHistograms() {
+        Context appContext = getApplicationContext();
+        TaskScheduler.submit(
+                TaskScheduler.Lane.DISK,
+                TaskScheduler.Priority.BACKGROUND,
+                () -> {
+                    LatencyHistograms.init(appContext);
+                    return LatencyHistograms.takeUnreported();
+                },
+                this::logLatencySummaries);
+    }
+
+    private void logLatencySummaries(List<LatencyHistograms.Summary> summaries) {
+        for (LatencyHistograms.Summary summary : summaries) {
+            Bundle b = new Bundle();
+            b.putString("day", summary.day);
+            b.putString("endpoint", summary.endpoint);
+            b.putString("network", summary.network);
+            b.putString("phase", summary.phase.name().toLowerCase(Locale.US));
+            b.putLong("count", summary.count);
+            b.putLong("p50_ms", summary.p50);
+            b.putLong("p90_ms", summary.p90);
+            b.putLong("p99_ms", summary.p99);
+            analytics.logEvent("net_latency", b);
+        }
+    }
+
     public static boolean isInternetAvailable(@NonNull Context ctx) {
         ConnectivityManager cm = (ConnectivityManager) ctx.getSystemService(Context.CONNECTIVITY_SERVICE);
         if (cm == null) return false;
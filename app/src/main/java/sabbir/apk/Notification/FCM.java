@@ -12,6 +12,7 @@ import android.os.Bundle;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
 
 import com.google.firebase.analytics.FirebaseAnalytics;
@@ -19,8 +20,13 @@ import com.google.firebase.messaging.FirebaseMessagingService;
 import com.google.firebase.messaging.RemoteMessage;
 
 
+import sabbir.apk.InterNet.API.GitHub.RoutineManagerApi;
+import sabbir.apk.InterNet.API.GitHub.RoutinePatcher;
+import sabbir.apk.InterNet.API.GitHub.RoutineSyncPipeline;
+import sabbir.apk.InterNet.Sync.RoutineSyncJob;
 import sabbir.apk.MainActivity;
 import sabbir.apk.R;
+import sabbir.apk.Widget.RoutineWidgetProvider;
 
 import java.util.Map;
 
@@ -29,6 +35,14 @@ public class FCM extends FirebaseMessagingService {
     private static final String TAG = "FCM";
     private static final String CHANNEL_ID = "default_channel";
 
+    /**
+     * Data action sent when the published routine changes. Carries "sha"
+     * (or "target_sha"); may also carry "base_sha", an RFC 6902 "patch" and
+     * "canonical_sha256", the SHA-256 of the patched routine in the
+     * canonical form {@link RoutinePatcher} documents.
+     */
+    private static final String ACTION_ROUTINE_UPDATED = "routine_updated";
+
     private FirebaseAnalytics mFirebaseAnalytics;
 
     @Override
@@ -70,12 +84,24 @@ public class FCM extends FirebaseMessagingService {
     }
 
     private void handleData(Map<String, String> data) {
-        if (data.containsKey("action")) {
-            String action = data.get("action");
+        String action = data.get("action");
+        if (action != null) {
             Log.d(TAG, "Action received: " + action);
             logDataPayload(action, data);
         }
 
+        if (ACTION_ROUTINE_UPDATED.equals(action)) {
+            String targetSha = data.containsKey("target_sha") ? data.get("target_sha") : data.get("sha");
+            String baseSha = data.get("base_sha");
+            String patch = data.get("patch");
+            if (targetSha != null && baseSha != null && patch != null) {
+                handleRoutinePatch(baseSha, targetSha, data.get("canonical_sha256"), patch);
+            } else {
+                handleRoutineUpdated(targetSha);
+            }
+            return;
+        }
+
         if ("true".equals(data.get("long_job"))) {
             scheduleJob(data);
         } else {
@@ -83,6 +109,63 @@ public class FCM extends FirebaseMessagingService {
         }
     }
 
+    /**
+     * Syncs only when the announced SHA differs from the cached routine and
+     * is not a version kept on disk (e.g. a reverted push); the sync itself
+     * runs as a constrained job, never inside this callback.
+     */
+    private void handleRoutineUpdated(@Nullable String sha) {
+        if (sha == null || sha.isEmpty()) {
+            RoutineSyncJob.scheduleForPush(this, null);
+            return;
+        }
+        if (RoutineManagerApi.isCurrent(this, sha)) {
+            Log.d(TAG, "Routine already at " + sha);
+            RoutineSyncPipeline.markConfirmed(this);
+            return;
+        }
+
+        Context appContext = getApplicationContext();
+        RoutineManagerApi.runSerialized(() -> {
+            if (RoutineManagerApi.activateStored(appContext, sha)) {
+                RoutineSyncPipeline.markConfirmed(appContext);
+                RoutineWidgetProvider.updateAllWidgets(appContext);
+            } else {
+                RoutineSyncJob.scheduleForPush(appContext, sha);
+            }
+        });
+    }
+
+    /**
+     * Applies the pushed patch to the cached routine, falling back to a
+     * constrained full sync when it does not apply or verify.
+     */
+    private void handleRoutinePatch(String baseSha, String targetSha,
+                                    @Nullable String canonicalSha256, String patch) {
+        Context appContext = getApplicationContext();
+        RoutineManagerApi.runSerialized(() -> {
+            RoutinePatcher.Outcome outcome =
+                    RoutinePatcher.apply(appContext, baseSha, targetSha, canonicalSha256, patch);
+            Log.d(TAG, "Routine patch " + baseSha + " -> " + targetSha + ": " + outcome);
+
+            switch (outcome) {
+                case APPLIED:
+                    RoutineSyncPipeline.markConfirmed(appContext);
+                    RoutineWidgetProvider.updateAllWidgets(appContext);
+                    break;
+                case ALREADY_CURRENT:
+                    RoutineSyncPipeline.markConfirmed(appContext);
+                    break;
+                case BASE_MISMATCH:
+                case NOT_CANONICAL:
+                case FAILED:
+                default:
+                    RoutineSyncJob.scheduleForPush(appContext, targetSha);
+                    break;
+            }
+        });
+    }
+
     private void sendRegistrationToServer(String token) {
         Log.d(TAG, "Send token to server: " + token);
         // TODO: Replace with actual backend API call
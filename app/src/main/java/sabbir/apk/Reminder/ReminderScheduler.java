@@ -12,7 +12,7 @@ import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.List;
 
-import sabbir.apk.InterNet.Deta.ScheduleItem;
+import sabbir.apk.Timetable.TimetableEngine;
 
 public final class ReminderScheduler {
 
@@ -23,7 +23,9 @@ public final class ReminderScheduler {
         // Utility class.
     }
 
-    public static void scheduleTodayReminders(Context context, List<ScheduleItem> items, LocalDate date) {
+    public static void scheduleTodayReminders(Context context, TimetableEngine timetable, LocalDate date) {
+        List<TimetableEngine.Slot> slots = timetable.day(date.getDayOfWeek());
+
         SharedPreferences prefs =
                 context.getSharedPreferences(ReminderPreferences.PREFS_NAME, Context.MODE_PRIVATE);
         boolean notificationsEnabled =
@@ -34,16 +36,16 @@ public final class ReminderScheduler {
                 prefs.getBoolean(ReminderPreferences.KEY_MORNING_ALARM, true);
 
         if (!notificationsEnabled) {
-            cancelTodayReminders(context, items, date);
+            cancelTodayReminders(context, slots, date);
             return;
         }
 
-        if (items == null || items.isEmpty()) {
+        if (slots.isEmpty()) {
             return;
         }
 
         if (morningAlarmEnabled) {
-            LocalTime firstClassStart = items.get(0).start;
+            LocalTime firstClassStart = slots.get(0).start;
             scheduleAlarm(
                     context,
                     date,
@@ -54,16 +56,15 @@ public final class ReminderScheduler {
         }
 
         if (classRemindersEnabled) {
-            for (int i = 0; i < items.size(); i++) {
-                ScheduleItem item = items.get(i);
-                LocalTime reminderTime = item.start.minusMinutes(REMINDER_OFFSET_MINUTES);
+            for (TimetableEngine.Slot slot : slots) {
+                LocalTime reminderTime = slot.start.minusMinutes(REMINDER_OFFSET_MINUTES);
                 scheduleAlarm(
                         context,
                         date,
                         reminderTime,
                         ReminderReceiver.ACTION_CLASS_REMINDER,
-                        buildRequestCode(date, i),
-                        item
+                        buildRequestCode(date, slot.index),
+                        slot
                 );
             }
         }
@@ -85,7 +86,7 @@ public final class ReminderScheduler {
             LocalTime time,
             String action,
             int requestCode,
-            ScheduleItem item
+            TimetableEngine.Slot slot
     ) {
         LocalDateTime target = LocalDateTime.of(date, time);
         long triggerAtMillis = target.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
@@ -101,10 +102,10 @@ public final class ReminderScheduler {
 
         Intent intent = new Intent(context, ReminderReceiver.class);
         intent.setAction(action);
-        if (item != null) {
-            intent.putExtra(ReminderReceiver.EXTRA_SUBJECT, item.subject);
-            intent.putExtra(ReminderReceiver.EXTRA_INSTRUCTOR, item.instructor);
-            intent.putExtra(ReminderReceiver.EXTRA_START_TIME, item.start.toString());
+        if (slot != null) {
+            intent.putExtra(ReminderReceiver.EXTRA_SUBJECT, slot.subject);
+            intent.putExtra(ReminderReceiver.EXTRA_INSTRUCTOR, slot.instructor);
+            intent.putExtra(ReminderReceiver.EXTRA_START_TIME, slot.start.toString());
         }
 
         PendingIntent pendingIntent = PendingIntent.getBroadcast(
@@ -117,13 +118,13 @@ public final class ReminderScheduler {
         alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAtMillis, pendingIntent);
     }
 
-    private static void cancelTodayReminders(Context context, List<ScheduleItem> items, LocalDate date) {
+    private static void cancelTodayReminders(Context context, List<TimetableEngine.Slot> slots, LocalDate date) {
         AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
-        if (alarmManager == null || items == null) {
+        if (alarmManager == null) {
             return;
         }
 
-        for (int i = -1; i < items.size(); i++) {
+        for (int i = -1; i < slots.size(); i++) {
             PendingIntent pendingIntent = PendingIntent.getBroadcast(
                     context,
                     buildRequestCode(date, i),
@@ -0,0 +1,227 @@
+package sabbir.apk.Timetable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import sabbir.apk.InterNet.Deta.RoutineEntry;
+
+/**
+ * TimetableEngine
+ *
+ * Accountability:
+ * - Own the period table (the only copy of the slot start and end times)
+ * - Compile a routine once into a sorted interval index per weekday
+ * - Answer current slot, next slot, remaining seconds and the next
+ *   state-change instant from a single O(log n) query
+ *
+ * Instances are immutable; {@code RoutineRepository} keeps one per routine
+ * SHA, so the screens, the widget and the reminders share the same copy.
+ */
+public final class TimetableEngine {
+
+    private static final LocalTime[] PERIOD_STARTS = {
+            LocalTime.of(9, 15),
+            LocalTime.of(10, 0),
+            LocalTime.of(10, 45),
+            LocalTime.of(11, 30),
+            LocalTime.of(12, 15)
+    };
+
+    private static final LocalTime[] PERIOD_ENDS = {
+            LocalTime.of(10, 0),
+            LocalTime.of(10, 45),
+            LocalTime.of(11, 30),
+            LocalTime.of(12, 15),
+            LocalTime.of(13, 0)
+    };
+
+    static {
+        if (PERIOD_STARTS.length != PERIOD_ENDS.length) {
+            throw new IllegalStateException("Period arrays length mismatch");
+        }
+        for (int i = 0; i < PERIOD_STARTS.length; i++) {
+            if (!PERIOD_STARTS[i].isBefore(PERIOD_ENDS[i])) {
+                throw new IllegalStateException("Invalid period: start ≥ end at index " + i);
+            }
+            if (i > 0 && PERIOD_STARTS[i].isBefore(PERIOD_ENDS[i - 1])) {
+                throw new IllegalStateException("Overlapping periods at index " + i);
+            }
+        }
+    }
+
+    @Nullable
+    private final String sha;
+    private final Map<DayOfWeek, Day> days;
+
+    private TimetableEngine(@Nullable String sha, Map<DayOfWeek, Day> days) {
+        this.sha = sha;
+        this.days = days;
+    }
+
+    /* =========================
+       Model
+       ========================= */
+
+    /** One routine entry placed in its period. */
+    public static final class Slot {
+        /** Position within the day, also the period number. */
+        public final int index;
+        public final DayOfWeek day;
+        public final LocalTime start;
+        public final LocalTime end;
+        public final RoutineEntry entry;
+        /** Subject with the "Free Period" fallback applied. */
+        public final String subject;
+        /** Instructor with the "—" fallback applied. */
+        public final String instructor;
+
+        Slot(int index, DayOfWeek day, LocalTime start, LocalTime end, RoutineEntry entry) {
+            this.index = index;
+            this.day = day;
+            this.start = start;
+            this.end = end;
+            this.entry = entry;
+            this.subject = entry.subjectName == null || "null".equals(entry.subjectName)
+                    ? "Free Period"
+                    : entry.subjectName;
+            this.instructor = entry.instructorName != null ? entry.instructorName : "—";
+        }
+    }
+
+    /** Where a given instant falls in its day. */
+    public static final class Moment {
+        @Nullable
+        public final Slot current;
+        @Nullable
+        public final Slot next;
+        /** Slots of the day already over; they are the first {@code pastCount}. */
+        public final int pastCount;
+        /** Seconds until {@link #nextChange}, or 0 when nothing changes today. */
+        public final long remainingSeconds;
+        /** When current or next changes again, or null once the day is done. */
+        @Nullable
+        public final LocalDateTime nextChange;
+
+        Moment(@Nullable Slot current, @Nullable Slot next, int pastCount,
+               long remainingSeconds, @Nullable LocalDateTime nextChange) {
+            this.current = current;
+            this.next = next;
+            this.pastCount = pastCount;
+            this.remainingSeconds = remainingSeconds;
+            this.nextChange = nextChange;
+        }
+    }
+
+    private static final class Day {
+        final List<Slot> slots;
+        final int[] starts;
+        final int[] ends;
+
+        Day(List<Slot> slots) {
+            this.slots = Collections.unmodifiableList(slots);
+            this.starts = new int[slots.size()];
+            this.ends = new int[slots.size()];
+            for (int i = 0; i < slots.size(); i++) {
+                starts[i] = slots.get(i).start.toSecondOfDay();
+                ends[i] = slots.get(i).end.toSecondOfDay();
+            }
+        }
+    }
+
+    /* =========================
+       Compilation
+       ========================= */
+
+    /**
+     * Places each day's entries into the periods in order; entries beyond
+     * the last period are dropped. The periods are checked to be ordered
+     * and disjoint at class load, so each day comes out sorted by start.
+     */
+    @NonNull
+    public static TimetableEngine compile(@Nullable String sha,
+                                          @NonNull Map<DayOfWeek, List<RoutineEntry>> week) {
+        Map<DayOfWeek, Day> days = new EnumMap<>(DayOfWeek.class);
+        for (Map.Entry<DayOfWeek, List<RoutineEntry>> day : week.entrySet()) {
+            List<RoutineEntry> entries = day.getValue();
+            int count = entries != null ? Math.min(entries.size(), PERIOD_STARTS.length) : 0;
+
+            List<Slot> slots = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                slots.add(new Slot(i, day.getKey(), PERIOD_STARTS[i], PERIOD_ENDS[i], entries.get(i)));
+            }
+            days.put(day.getKey(), new Day(slots));
+        }
+        return new TimetableEngine(sha, days);
+    }
+
+    /* =========================
+       Queries
+       ========================= */
+
+    /** Blob SHA of the routine this was compiled from, when known. */
+    @Nullable
+    public String sha() {
+        return sha;
+    }
+
+    /** True when the routine lists {@code day}, even with no entries. */
+    public boolean hasDay(@NonNull DayOfWeek day) {
+        return days.containsKey(day);
+    }
+
+    /**
+     * @return the day's slots in start order; empty when absent
+     */
+    @NonNull
+    public List<Slot> day(@NonNull DayOfWeek day) {
+        Day compiled = days.get(day);
+        return compiled != null ? compiled.slots : Collections.<Slot>emptyList();
+    }
+
+    /**
+     * Binary-searches {@code now}'s weekday. A slot is current from its
+     * start (inclusive) to its end (exclusive).
+     */
+    @NonNull
+    public Moment at(@NonNull LocalDateTime now) {
+        Day day = days.get(now.getDayOfWeek());
+        if (day == null || day.slots.isEmpty()) {
+            return new Moment(null, null, 0, 0, null);
+        }
+
+        int second = now.toLocalTime().toSecondOfDay();
+        int found = Arrays.binarySearch(day.starts, second);
+        // Last slot starting at or before now, or -1.
+        int last = found >= 0 ? found : -found - 2;
+
+        Slot current = null;
+        int nextIndex = last + 1;
+        if (last >= 0 && second < day.ends[last]) {
+            current = day.slots.get(last);
+        }
+        Slot next = nextIndex < day.slots.size() ? day.slots.get(nextIndex) : null;
+        int pastCount = current != null ? last : last + 1;
+
+        LocalTime change = current != null ? current.end : next != null ? next.start : null;
+        if (change == null) {
+            return new Moment(null, null, pastCount, 0, null);
+        }
+        return new Moment(
+                current,
+                next,
+                pastCount,
+                Math.max(0, change.toSecondOfDay() - second),
+                now.toLocalDate().atTime(change)
+        );
+    }
+}
@@ -1,55 +1,132 @@
 package sabbir.apk.UI.Adapter;
 
 
+import android.content.Context;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.List;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
 
 import sabbir.apk.InterNet.Deta.ScheduleItem;
 import sabbir.apk.R;
 
 
-public class ClassAdapter extends RecyclerView.Adapter<ClassAdapter.ViewHolder> {
+/**
+ * Class rows for one home list. Kept for the screen's lifetime and fed
+ * with {@link #submitList}; the diff runs off the main thread and only
+ * the rows that moved or changed are touched. Row text is precomputed
+ * by {@link #row} on a worker thread, so binding only assigns it.
+ *
+ * The view type is the layout, so lists with different row layouts can
+ * share one {@link RecyclerView.RecycledViewPool}.
+ */
+public class ClassAdapter extends ListAdapter<ClassAdapter.Row, ClassAdapter.ViewHolder> {
+
+    // Order of the row's views in captureStyle().
+    private static final int TEXT_SUBJECT = 0;
+    private static final int TEXT_TIME = 1;
+    private static final int TEXT_INSTRUCTOR = 2;
+
+    private static final DateTimeFormatter TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("HH:mm", Locale.getDefault());
+
+    /** A class with its row text laid out for one list's layout. */
+    public static final class Row {
+        final long id;
+        final CharSequence subject;
+        final CharSequence time;
+        final CharSequence instructor;
+
+        Row(long id, CharSequence subject, CharSequence time, CharSequence instructor) {
+            this.id = id;
+            this.subject = subject;
+            this.time = time;
+            this.instructor = instructor;
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<Row> DIFF =
+            new DiffUtil.ItemCallback<Row>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+                    return oldItem.id == newItem.id;
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+                    return TextUtils.equals(oldItem.subject, newItem.subject)
+                            && TextUtils.equals(oldItem.time, newItem.time)
+                            && TextUtils.equals(oldItem.instructor, newItem.instructor);
+                }
+            };
 
-    private final List<ScheduleItem> items;
     private final int layoutId;
 
-    public ClassAdapter(List<ScheduleItem> items, int layoutId) {
-        this.items = items;
+    public ClassAdapter(int layoutId) {
+        super(DIFF);
         this.layoutId = layoutId;
+        setHasStableIds(true);
+    }
+
+    @MainThread
+    @NonNull
+    public static RowText.Style captureStyle(@NonNull Context context, int layoutId) {
+        return RowText.Style.capture(context, layoutId, R.id.tv_subject, R.id.tv_time, R.id.tv_instructor);
+    }
+
+    @WorkerThread
+    @NonNull
+    public static Row row(@NonNull ScheduleItem item, @NonNull RowText.Style style) {
+        return new Row(
+                item.stableId(),
+                style.precompute(TEXT_SUBJECT, item.subject),
+                style.precompute(TEXT_TIME,
+                        item.start.format(TIME_FORMATTER) + " – " + item.end.format(TIME_FORMATTER)),
+                style.precompute(TEXT_INSTRUCTOR, item.instructor)
+        );
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return layoutId;
     }
 
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
-                .inflate(layoutId, parent, false);
+                .inflate(viewType, parent, false);
         return new ViewHolder(view);
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        ScheduleItem item = items.get(position);
+        Row row = getItem(position);
 
-        holder.subject.setText(item.subject);
-        holder.time.setText(item.start + " – " + item.end);
+        RowText.bind(holder.subject, row.subject);
+        RowText.bind(holder.time, row.time);
 
         if (holder.instructor != null) {
-            holder.instructor.setText(item.instructor);
+            RowText.bind(holder.instructor, row.instructor);
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return items.size();
-    }
-
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView subject, time, instructor;
 
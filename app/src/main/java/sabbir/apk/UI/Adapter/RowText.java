@@ -0,0 +1,163 @@
+package sabbir.apk.UI.Adapter;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.annotation.IdRes;
+import androidx.annotation.LayoutRes;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * RowText
+ *
+ * Accountability:
+ * - Capture each row TextView's text metrics once, from a prototype row
+ *   inflated on the main thread
+ * - Lay out row text into {@link PrecomputedTextCompat} on a worker thread
+ * - Cache built rows per routine SHA, so reopening a screen builds nothing
+ * - Bind by assignment; text whose params no longer match the view (a font
+ *   scale change, say) is set as plain text instead of throwing
+ */
+public final class RowText {
+
+    private static String cachedSha;
+    private static final Map<String, Cached> cache = new HashMap<>();
+
+    private RowText() {
+        // utility class
+    }
+
+    /** Text metrics of a row's TextViews, in the order they were captured. */
+    public static final class Style {
+        private final List<PrecomputedTextCompat.Params> params;
+
+        private Style(List<PrecomputedTextCompat.Params> params) {
+            this.params = Collections.unmodifiableList(params);
+        }
+
+        /**
+         * Inflates {@code layoutId} detached and reads the params of each
+         * listed view. An id missing from the layout yields plain text.
+         */
+        @MainThread
+        @NonNull
+        public static Style capture(@NonNull Context context, @LayoutRes int layoutId,
+                                    @IdRes int... textViewIds) {
+            View prototype = LayoutInflater.from(context).inflate(layoutId, null, false);
+            List<PrecomputedTextCompat.Params> params = new ArrayList<>(textViewIds.length);
+            for (int id : textViewIds) {
+                TextView view = prototype.findViewById(id);
+                params.add(view != null ? TextViewCompat.getTextMetricsParams(view) : null);
+            }
+            return new Style(params);
+        }
+
+        /**
+         * @param index position of the view's id in {@link #capture}
+         */
+        @WorkerThread
+        @NonNull
+        public CharSequence precompute(int index, @Nullable CharSequence text) {
+            String value = text != null ? text.toString() : "";
+            PrecomputedTextCompat.Params target = params.get(index);
+            return target != null ? PrecomputedTextCompat.create(value, target) : value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Style && params.equals(((Style) o).params);
+        }
+
+        @Override
+        public int hashCode() {
+            return params.hashCode();
+        }
+    }
+
+    public interface Builder<T> {
+        T build();
+    }
+
+    /* =========================
+       Cache
+       ========================= */
+
+    /**
+     * Returns the rows built for {@code key} under routine {@code sha} with
+     * the same styles, or builds and keeps them. A new SHA drops every
+     * entry of the previous one; a null SHA is never cached.
+     */
+    @WorkerThread
+    @SuppressWarnings("unchecked")
+    public static <T> T cachedOrBuild(@Nullable String sha, @NonNull String key,
+                                      @NonNull List<Style> styles, @NonNull Builder<T> builder) {
+        if (sha != null) {
+            synchronized (RowText.class) {
+                Cached hit = sha.equals(cachedSha) ? cache.get(key) : null;
+                if (hit != null && hit.styles.equals(styles)) {
+                    return (T) hit.value;
+                }
+            }
+        }
+
+        T built = builder.build();
+
+        if (sha != null) {
+            synchronized (RowText.class) {
+                if (!sha.equals(cachedSha)) {
+                    cache.clear();
+                    cachedSha = sha;
+                }
+                cache.put(key, new Cached(styles, built));
+            }
+        }
+        return built;
+    }
+
+    public static List<Style> styles(Style... styles) {
+        return Arrays.asList(styles);
+    }
+
+    /* =========================
+       Binding
+       ========================= */
+
+    @MainThread
+    public static void bind(@NonNull TextView view, @NonNull CharSequence text) {
+        if (text instanceof PrecomputedTextCompat) {
+            PrecomputedTextCompat precomputed = (PrecomputedTextCompat) text;
+            if (Objects.equals(precomputed.getParams(), TextViewCompat.getTextMetricsParams(view))) {
+                TextViewCompat.setPrecomputedText(view, precomputed);
+                return;
+            }
+            view.setText(text.toString());
+            return;
+        }
+        view.setText(text);
+    }
+
+    private static final class Cached {
+        final List<Style> styles;
+        final Object value;
+
+        Cached(List<Style> styles, Object value) {
+            this.styles = styles;
+            this.value = value;
+        }
+    }
+}
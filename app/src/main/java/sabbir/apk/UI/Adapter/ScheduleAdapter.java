@@ -0,0 +1,284 @@
+package sabbir.apk.UI.Adapter;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.text.TextUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.time.DayOfWeek;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import sabbir.apk.InterNet.Deta.RoutineEntry;
+import sabbir.apk.R;
+import sabbir.apk.Timetable.TimetableEngine;
+
+/**
+ * The week on the Schedule screen as one flat list: a header row per day,
+ * then its entries (or an empty-day row).
+ *
+ * Every label is formatted and laid out in {@link #buildRows}, off the
+ * main thread, against the params of the row's own TextViews; binding
+ * only assigns the precomputed text.
+ */
+public class ScheduleAdapter extends ListAdapter<ScheduleAdapter.Row, RecyclerView.ViewHolder> {
+
+    private static final int TYPE_HEADER = 0;
+    private static final int TYPE_ENTRY = 1;
+    private static final int TYPE_EMPTY = 2;
+
+    // Order of the entry row's views in entryStyle().
+    private static final int ENTRY_TIME = 0;
+    private static final int ENTRY_SUBJECT = 1;
+    private static final int ENTRY_INSTRUCTOR = 2;
+    private static final int ENTRY_ROOM = 3;
+
+    private static final DayOfWeek[] DAY_ORDER = {
+            DayOfWeek.MONDAY,
+            DayOfWeek.TUESDAY,
+            DayOfWeek.WEDNESDAY,
+            DayOfWeek.THURSDAY,
+            DayOfWeek.FRIDAY,
+            DayOfWeek.SATURDAY,
+            DayOfWeek.SUNDAY
+    };
+
+    private static final DateTimeFormatter TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("HH:mm", Locale.getDefault());
+
+    /** One display row, fully formatted and measured. */
+    public static final class Row {
+        final int type;
+        final long id;
+        final CharSequence title;
+        final CharSequence time;
+        final CharSequence instructor;
+        final CharSequence room;
+        final boolean showDivider;
+
+        Row(int type, long id, CharSequence title, CharSequence time,
+            CharSequence instructor, CharSequence room, boolean showDivider) {
+            this.type = type;
+            this.id = id;
+            this.title = title;
+            this.time = time;
+            this.instructor = instructor;
+            this.room = room;
+            this.showDivider = showDivider;
+        }
+
+        boolean sameContent(Row other) {
+            return type == other.type
+                    && showDivider == other.showDivider
+                    && TextUtils.equals(title, other.title)
+                    && TextUtils.equals(time, other.time)
+                    && TextUtils.equals(instructor, other.instructor)
+                    && TextUtils.equals(room, other.room);
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<Row> DIFF = new DiffUtil.ItemCallback<Row>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return oldItem.id == newItem.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return oldItem.sameContent(newItem);
+        }
+    };
+
+    public ScheduleAdapter() {
+        super(DIFF);
+        setHasStableIds(true);
+    }
+
+    /* =========================
+       Display models
+       ========================= */
+
+    @MainThread
+    @NonNull
+    public static RowText.Style headerStyle(@NonNull Context context) {
+        return RowText.Style.capture(context, R.layout.item_schedule_day_header, R.id.tv_day_name);
+    }
+
+    @MainThread
+    @NonNull
+    public static RowText.Style entryStyle(@NonNull Context context) {
+        return RowText.Style.capture(context, R.layout.item_schedule_entry,
+                R.id.tv_entry_time, R.id.tv_entry_subject, R.id.tv_entry_instructor, R.id.tv_entry_room);
+    }
+
+    /**
+     * Flattens the week, Monday first, skipping days the routine omits.
+     *
+     * @return the rows; empty when no day is present
+     */
+    @WorkerThread
+    @NonNull
+    public static List<Row> buildRows(@NonNull Resources res, @NonNull TimetableEngine timetable,
+                                      @NonNull RowText.Style headerStyle,
+                                      @NonNull RowText.Style entryStyle) {
+        String instructorLabel = res.getString(R.string.schedule_instructor_label);
+        String roomLabel = res.getString(R.string.schedule_room_label);
+
+        List<Row> rows = new ArrayList<>();
+        for (DayOfWeek day : DAY_ORDER) {
+            if (!timetable.hasDay(day)) {
+                continue;
+            }
+            long dayKey = (long) day.getValue() << 8;
+            rows.add(new Row(TYPE_HEADER, dayKey | 0xFF,
+                    headerStyle.precompute(0, day.getDisplayName(TextStyle.FULL, Locale.getDefault())),
+                    null, null, null, false));
+
+            List<TimetableEngine.Slot> slots = timetable.day(day);
+            if (slots.isEmpty()) {
+                rows.add(new Row(TYPE_EMPTY, dayKey | 0xFE, null, null, null, null, false));
+                continue;
+            }
+            for (int i = 0; i < slots.size(); i++) {
+                TimetableEngine.Slot slot = slots.get(i);
+                rows.add(entryRow(res, entryStyle, slot, dayKey | slot.index,
+                        instructorLabel, roomLabel, i < slots.size() - 1));
+            }
+        }
+        return rows;
+    }
+
+    private static Row entryRow(Resources res, RowText.Style style, TimetableEngine.Slot slot, long id,
+                                String instructorLabel, String roomLabel, boolean showDivider) {
+        String time = slot.start.format(TIME_FORMATTER) + " – " + slot.end.format(TIME_FORMATTER);
+
+        RoutineEntry entry = slot.entry;
+        String subjectCode = normalize(entry.subjectCode);
+        String subjectName = normalize(entry.subjectName);
+
+        String subjectLabel;
+        String instructor;
+        String room;
+        if (subjectName.isEmpty() && subjectCode.isEmpty()) {
+            subjectLabel = res.getString(R.string.schedule_free_period);
+            instructor = res.getString(R.string.schedule_instructor_empty);
+            room = res.getString(R.string.schedule_room_empty);
+        } else {
+            subjectLabel = subjectName;
+            if (!subjectCode.isEmpty() && !subjectName.isEmpty()) {
+                subjectLabel = subjectCode + " — " + subjectName;
+            } else if (!subjectCode.isEmpty()) {
+                subjectLabel = subjectCode;
+            }
+            instructor = formatLabel(instructorLabel, normalize(entry.instructorName));
+            room = formatLabel(roomLabel, normalize(entry.room));
+        }
+
+        return new Row(TYPE_ENTRY, id,
+                style.precompute(ENTRY_SUBJECT, subjectLabel),
+                style.precompute(ENTRY_TIME, time),
+                style.precompute(ENTRY_INSTRUCTOR, instructor),
+                style.precompute(ENTRY_ROOM, room),
+                showDivider);
+    }
+
+    private static String formatLabel(String label, String value) {
+        if (value.isEmpty()) {
+            return label + " —";
+        }
+        return label + " " + value;
+    }
+
+    private static String normalize(String value) {
+        if (value == null || "null".equalsIgnoreCase(value)) {
+            return "";
+        }
+        return value.trim();
+    }
+
+    /* =========================
+       Binding
+       ========================= */
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return getItem(position).type;
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        switch (viewType) {
+            case TYPE_HEADER:
+                return new HeaderHolder(inflater.inflate(R.layout.item_schedule_day_header, parent, false));
+            case TYPE_EMPTY:
+                return new EmptyHolder(inflater.inflate(R.layout.item_schedule_day_empty, parent, false));
+            case TYPE_ENTRY:
+            default:
+                return new EntryHolder(inflater.inflate(R.layout.item_schedule_entry, parent, false));
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        Row row = getItem(position);
+        if (holder instanceof HeaderHolder) {
+            RowText.bind(((HeaderHolder) holder).dayName, row.title);
+        } else if (holder instanceof EntryHolder) {
+            EntryHolder entry = (EntryHolder) holder;
+            RowText.bind(entry.time, row.time);
+            RowText.bind(entry.subject, row.title);
+            RowText.bind(entry.instructor, row.instructor);
+            RowText.bind(entry.room, row.room);
+            entry.divider.setVisibility(row.showDivider ? View.VISIBLE : View.GONE);
+        }
+    }
+
+    static class HeaderHolder extends RecyclerView.ViewHolder {
+        final TextView dayName;
+
+        HeaderHolder(@NonNull View itemView) {
+            super(itemView);
+            dayName = itemView.findViewById(R.id.tv_day_name);
+        }
+    }
+
+    static class EntryHolder extends RecyclerView.ViewHolder {
+        final TextView time, subject, instructor, room;
+        final View divider;
+
+        EntryHolder(@NonNull View itemView) {
+            super(itemView);
+            time = itemView.findViewById(R.id.tv_entry_time);
+            subject = itemView.findViewById(R.id.tv_entry_subject);
+            instructor = itemView.findViewById(R.id.tv_entry_instructor);
+            room = itemView.findViewById(R.id.tv_entry_room);
+            divider = itemView.findViewById(R.id.divider);
+        }
+    }
+
+    static class EmptyHolder extends RecyclerView.ViewHolder {
+        EmptyHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+}
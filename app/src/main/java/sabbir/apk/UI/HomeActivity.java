@@ -3,12 +3,10 @@ package sabbir.apk.UI;
 import android.content.Intent;
 import android.os.Build;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 import android.util.Base64;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.view.GravityCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
@@ -18,23 +16,18 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.navigation.NavigationView;
+import com.atwebpages.sabbir28.Core.TaskScheduler;
 import com.atwebpages.sabbir28.Core.UserManager;
 import com.google.firebase.analytics.FirebaseAnalytics;
 
-import org.json.JSONObject;
-
-import java.io.BufferedReader;
 import android.graphics.BitmapFactory;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import sabbir.apk.InterNet.API.GitHub.RoutineManagerApi;
+import sabbir.apk.InterNet.API.GitHub.RoutineRepository;
 import sabbir.apk.R;
 import sabbir.apk.Reminder.ReminderScheduler;
+import sabbir.apk.Timetable.TimetableEngine;
 import sabbir.apk.UI.home.HomeScheduleController;
 import sabbir.apk.UI.home.HomeUpdateController;
 import sabbir.apk.Widget.RoutineWidgetProvider;
@@ -43,8 +36,8 @@ public final class HomeActivity extends AppCompatActivity {
 
     private static final String TAG = "HomeActivity";
 
-    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
-    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    @Nullable
+    private TaskScheduler.Handle<?> routineLoad;
 
     private HomeScheduleController scheduleController;
     private HomeUpdateController updateController;
@@ -92,9 +85,9 @@ public final class HomeActivity extends AppCompatActivity {
                 findViewById(R.id.tv_upcoming_header),
                 findViewById(R.id.tv_previous_header),
                 findViewById(R.id.progress_loading),
-                (items, date) -> {
-                    ReminderScheduler.scheduleTodayReminders(this, items, date);
-                    logRoutineViewed("today_schedule", items.size());
+                (timetable, date) -> {
+                    ReminderScheduler.scheduleTodayReminders(this, timetable, date);
+                    logRoutineViewed("today_schedule", timetable.day(date.getDayOfWeek()).size());
                 }
         );
 
@@ -110,13 +103,22 @@ public final class HomeActivity extends AppCompatActivity {
     }
 
     private void loadRoutine() {
-        File routineFile = RoutineManagerApi.getRoutineFile(this);
-        if (routineFile == null || !routineFile.exists() || !routineFile.canRead()) {
-            scheduleController.showErrorState("Routine file not found or inaccessible");
-            logRoutineLoad(false, "file_missing_or_inaccessible");
-            return;
-        }
-        loadRoutineAsync(routineFile);
+        if (routineLoad != null) routineLoad.cancel(false);
+        routineLoad = TaskScheduler.submit(
+                TaskScheduler.Lane.DISK,
+                TaskScheduler.Priority.IMMEDIATE,
+                () -> {
+                    File routineFile = RoutineManagerApi.getRoutineFile(this);
+                    return routineFile != null && routineFile.exists() && routineFile.canRead();
+                },
+                readable -> {
+                    if (!readable) {
+                        scheduleController.showErrorState("Routine file not found or inaccessible");
+                        logRoutineLoad(false, "file_missing_or_inaccessible");
+                        return;
+                    }
+                    loadRoutineAsync();
+                });
     }
 
     private void initViews() {
@@ -157,43 +159,29 @@ public final class HomeActivity extends AppCompatActivity {
         rvPrevious.setNestedScrollingEnabled(false);
     }
 
-    private void loadRoutineAsync(@NonNull File file) {
-        ioExecutor.execute(() -> {
-            try {
-                String json = readFileToString(file);
-                JSONObject root = new JSONObject(json);
-                mainHandler.post(() -> {
-                    renderSchedule(root);
+    private void loadRoutineAsync() {
+        if (routineLoad != null) routineLoad.cancel(false);
+        routineLoad = TaskScheduler.submit(
+                TaskScheduler.Lane.DISK,
+                TaskScheduler.Priority.IMMEDIATE,
+                () -> {
+                    TimetableEngine timetable = RoutineRepository.getInstance(this).getTimetable();
+                    return timetable != null ? scheduleController.prepareToday(timetable) : null;
+                },
+                today -> {
+                    if (today == null) {
+                        scheduleController.showErrorState("Failed to load routine");
+                        logRoutineLoad(false, "parse_failed");
+                        return;
+                    }
+                    renderSchedule(today);
                     logRoutineLoad(true, "success");
                 });
-            } catch (Exception e) {
-                Log.e(TAG, "Failed to load routine", e);
-                mainHandler.post(() -> scheduleController.showErrorState("Failed to load routine"));
-                logRoutineLoad(false, "parse_failed");
-            }
-        });
     }
 
-    private void renderSchedule(JSONObject root) {
-        try {
-            scheduleController.renderTodaySchedule(root);
-            RoutineWidgetProvider.updateAllWidgets(this);
-        } catch (Exception e) {
-            Log.e(TAG, "Invalid routine JSON structure", e);
-            scheduleController.showErrorState("Invalid schedule format");
-            logRoutineLoad(false, "invalid_json");
-        }
-    }
-
-    private String readFileToString(File file) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file)))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line).append("\n");
-            }
-        }
-        return sb.toString();
+    private void renderSchedule(HomeScheduleController.Today today) {
+        scheduleController.renderTodaySchedule(today);
+        RoutineWidgetProvider.updateAllWidgets(this);
     }
 
     private void bindUserToDrawerHeader() {
@@ -281,7 +269,7 @@ public final class HomeActivity extends AppCompatActivity {
         super.onDestroy();
         if (updateController != null) updateController.onDestroy();
         if (scheduleController != null) scheduleController.stopUiTicker();
-        ioExecutor.shutdownNow();
+        if (routineLoad != null) routineLoad.cancel(false);
     }
 
     // ------------------- Firebase Analytics Methods -------------------
@@ -16,6 +16,7 @@ import com.google.firebase.analytics.FirebaseAnalytics;
 
 import sabbir.apk.R;
 import sabbir.apk.Reminder.ReminderPreferences;
+import sabbir.apk.UI.Settings.NetworkStatsActivity;
 import sabbir.apk.UI.Settings.ProfileActivity;
 
 public class Setting extends AppCompatActivity {
@@ -32,6 +33,7 @@ public class Setting extends AppCompatActivity {
     private SwitchMaterial switchMorningAlarm;
 
     private LinearLayout ProfileSetting;
+    private LinearLayout NetworkStatsSetting;
 
     private TokenManager tokenManager;
     private UserManager userManager;
@@ -64,8 +66,10 @@ public class Setting extends AppCompatActivity {
 
 
         ProfileSetting = findViewById(R.id.ProfileSetting);
+        NetworkStatsSetting = findViewById(R.id.NetworkStatsSetting);
 
         setupProfileUpdateAction();
+        setupNetworkStatsAction();
 
         SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         boolean notificationsEnabled = prefs.getBoolean(KEY_NOTIFICATIONS, true);
@@ -110,6 +114,13 @@ public class Setting extends AppCompatActivity {
         });
     }
 
+    private void setupNetworkStatsAction() {
+        NetworkStatsSetting.setOnClickListener(view -> {
+            startActivity(new Intent(this, NetworkStatsActivity.class));
+            overridePendingTransition(R.anim.activity_fade_slide_in, R.anim.activity_fade_slide_out);
+        });
+    }
+
     private String valueOf(TextInputEditText input) {
         return input.getText() == null ? "" : input.getText().toString().trim();
     }
@@ -0,0 +1,113 @@
+package sabbir.apk.UI.Settings;
+
+import android.os.Bundle;
+import android.text.format.Formatter;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.atwebpages.sabbir28.Core.HttpEngine;
+import com.atwebpages.sabbir28.Core.LatencyHistograms;
+import com.google.android.material.appbar.MaterialToolbar;
+import com.google.android.material.button.MaterialButton;
+
+import java.util.List;
+import java.util.Locale;
+
+import sabbir.apk.InterNet.API.GitHub.GitHubClient;
+import sabbir.apk.R;
+
+/**
+ * Debug view of the network layer: bytes on the wire versus decoded
+ * ({@link HttpEngine}), GitHub calls shared or rate-limited by
+ * {@link GitHubClient}, and {@link LatencyHistograms} per endpoint and
+ * network type: how long DNS, connect + TLS, time to first byte and the
+ * body took.
+ */
+public class NetworkStatsActivity extends AppCompatActivity {
+
+    private TextView statsText;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_network_stats);
+
+        MaterialToolbar toolbar = findViewById(R.id.toolbar_network_stats);
+        setSupportActionBar(toolbar);
+        toolbar.setNavigationOnClickListener(v -> {
+            finish();
+            overridePendingTransition(R.anim.activity_fade_in, R.anim.activity_fade_slide_out);
+        });
+
+        statsText = findViewById(R.id.tv_network_stats);
+
+        MaterialButton resetButton = findViewById(R.id.btn_reset_network_stats);
+        resetButton.setOnClickListener(v -> {
+            LatencyHistograms.clear();
+            render();
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        render();
+    }
+
+    private void render() {
+        StringBuilder text = new StringBuilder();
+        appendTransfer(text);
+        text.append('\n');
+        appendGitHub(text);
+        text.append('\n');
+        appendLatency(text);
+        statsText.setText(text);
+    }
+
+    /** Bytes since launch; gzip savings show as the gap between the two. */
+    private void appendTransfer(StringBuilder text) {
+        long wire = HttpEngine.wireBytes();
+        long decoded = HttpEngine.decodedBytes();
+        text.append("transfer · since launch\n")
+                .append("  wire     ").append(Formatter.formatShortFileSize(this, wire)).append('\n')
+                .append("  decoded  ").append(Formatter.formatShortFileSize(this, decoded));
+        if (decoded > 0 && wire < decoded) {
+            text.append(String.format(Locale.US, "  (%d%% saved)", 100 - wire * 100 / decoded));
+        }
+        text.append('\n');
+    }
+
+    /** Calls to the GitHub API that identical callers shared, and rate-limit decisions. */
+    private void appendGitHub(StringBuilder text) {
+        text.append("github · since launch\n")
+                .append("  ").append(GitHubClient.coalescingSummary()).append('\n')
+                .append("  ").append(GitHubClient.rateLimitSummary()).append('\n');
+    }
+
+    private void appendLatency(StringBuilder text) {
+        List<LatencyHistograms.Summary> summaries = LatencyHistograms.summaries();
+        if (summaries.isEmpty()) {
+            text.append(getString(R.string.network_stats_empty)).append('\n');
+            return;
+        }
+
+        String group = null;
+        for (LatencyHistograms.Summary summary : summaries) {
+            String current = summary.endpoint + " · " + summary.network;
+            if (!current.equals(group)) {
+                if (group != null) {
+                    text.append('\n');
+                }
+                text.append(current).append('\n');
+                group = current;
+            }
+            text.append(String.format(Locale.US, "  %-8s %5d  %5d / %5d / %5d%n",
+                    summary.phase.name().toLowerCase(Locale.US),
+                    summary.count,
+                    summary.p50,
+                    summary.p90,
+                    summary.p99));
+        }
+    }
+}
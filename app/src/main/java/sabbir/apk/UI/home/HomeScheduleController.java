@@ -6,15 +6,13 @@ import android.view.View;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import androidx.recyclerview.widget.RecyclerView;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -25,30 +23,18 @@ import java.util.Locale;
 import sabbir.apk.InterNet.Deta.ClassState;
 import sabbir.apk.InterNet.Deta.ScheduleItem;
 import sabbir.apk.R;
+import sabbir.apk.Timetable.TimetableEngine;
 import sabbir.apk.UI.Adapter.ClassAdapter;
+import sabbir.apk.UI.Adapter.RowText;
 
 public final class HomeScheduleController {
 
-    private static final LocalTime[] SLOT_STARTS = {
-            LocalTime.of(9, 15),
-            LocalTime.of(10, 0),
-            LocalTime.of(10, 45),
-            LocalTime.of(11, 30),
-            LocalTime.of(12, 15)
-    };
-
-    private static final LocalTime[] SLOT_ENDS = {
-            LocalTime.of(10, 0),
-            LocalTime.of(10, 45),
-            LocalTime.of(11, 30),
-            LocalTime.of(12, 15),
-            LocalTime.of(13, 0)
-    };
+    /** Lands boundary refreshes just past the change, never just before it. */
+    private static final long BOUNDARY_SLACK_MS = 20L;
 
     private static final DateTimeFormatter TIME_FORMATTER =
             DateTimeFormatter.ofPattern("HH:mm", Locale.getDefault());
 
-    private final List<ScheduleItem> todaySchedule = new ArrayList<>();
     private final View cardCurrentClass;
     private final RecyclerView rvUpcoming;
     private final RecyclerView rvPrevious;
@@ -59,12 +45,60 @@ public final class HomeScheduleController {
     private final View pastHeader;
     private final View loadingView;
     private final ReminderSchedulerHost host;
-
-    private Handler uiTickHandler;
-    private Runnable tickRunnable;
+    private final ClassAdapter upcomingAdapter = new ClassAdapter(R.layout.item_class_upcoming);
+    private final ClassAdapter pastAdapter = new ClassAdapter(R.layout.item_class_previous);
+    private final RowText.Style upcomingStyle;
+    private final RowText.Style pastStyle;
+
+    private final Handler uiHandler = new Handler(Looper.getMainLooper());
+    private final Runnable boundaryRunnable = this::onSlotBoundary;
+    private final Runnable countdownRunnable = this::onCountdownTick;
+
+    @Nullable
+    private TimetableEngine timetable;
+    private LocalDate scheduleDate;
+    private List<ScheduleItem> todaySchedule = Collections.emptyList();
+    /**
+     * Per-item state for the moment on screen. Kept here rather than in
+     * {@link ScheduleItem#state}: the items are cached in {@link RowText}
+     * and shared with every screen built from the same routine.
+     */
+    private ClassState[] todayStates = new ClassState[0];
+    private List<ClassAdapter.Row> upcomingRows = Collections.emptyList();
+    private List<ClassAdapter.Row> pastRows = Collections.emptyList();
+
+    /** End of the class being counted down, or null when none is running. */
+    @Nullable
+    private LocalDateTime countdownEnd;
 
     public interface ReminderSchedulerHost {
-        void scheduleTodayReminders(List<ScheduleItem> items, LocalDate date);
+        void scheduleTodayReminders(TimetableEngine timetable, LocalDate date);
+    }
+
+    /** Today's classes with their row text, from {@link #prepareToday}. */
+    public static final class Today {
+        final TimetableEngine timetable;
+        final LocalDate date;
+        final DayRows rows;
+
+        Today(TimetableEngine timetable, LocalDate date, DayRows rows) {
+            this.timetable = timetable;
+            this.date = date;
+            this.rows = rows;
+        }
+    }
+
+    /** One weekday's items and rows for both lists; cached per routine SHA. */
+    private static final class DayRows {
+        final List<ScheduleItem> items;
+        final List<ClassAdapter.Row> upcoming;
+        final List<ClassAdapter.Row> past;
+
+        DayRows(List<ScheduleItem> items, List<ClassAdapter.Row> upcoming, List<ClassAdapter.Row> past) {
+            this.items = items;
+            this.upcoming = upcoming;
+            this.past = past;
+        }
     }
 
     public HomeScheduleController(
@@ -89,40 +123,73 @@ public final class HomeScheduleController {
         this.pastHeader = pastHeader;
         this.loadingView = loadingView;
         this.host = host;
-        validateTimeSlots();
-    }
-
-    public void renderTodaySchedule(JSONObject root) throws JSONException {
-        hideLoading();
-        JSONObject scheduleObj = root.getJSONObject("schedule");
-        DayOfWeek today = LocalDate.now().getDayOfWeek();
-        JSONArray todayArray = scheduleObj.optJSONArray(today.name());
 
-        if (todayArray == null || todayArray.length() == 0) {
-            showEmptyState("No classes scheduled today");
-            return;
-        }
+        // Both lists draw from one pool; the adapters key view types by layout.
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        rvUpcoming.setRecycledViewPool(pool);
+        rvPrevious.setRecycledViewPool(pool);
+        rvUpcoming.setAdapter(upcomingAdapter);
+        rvPrevious.setAdapter(pastAdapter);
 
-        todaySchedule.clear();
-        int slotCount = Math.min(todayArray.length(), SLOT_STARTS.length);
+        upcomingStyle = ClassAdapter.captureStyle(rvUpcoming.getContext(), R.layout.item_class_upcoming);
+        pastStyle = ClassAdapter.captureStyle(rvPrevious.getContext(), R.layout.item_class_previous);
+    }
 
-        for (int i = 0; i < slotCount; i++) {
-            JSONObject entry = todayArray.getJSONObject(i);
+    /**
+     * Builds today's items and precomputed row text for both lists. Runs
+     * off the main thread; hand the result to {@link #renderTodaySchedule}.
+     */
+    @WorkerThread
+    @NonNull
+    public Today prepareToday(@NonNull TimetableEngine timetable) {
+        LocalDate today = LocalDate.now();
+        DayRows rows = RowText.cachedOrBuild(
+                timetable.sha(),
+                "home:" + today.getDayOfWeek(),
+                RowText.styles(upcomingStyle, pastStyle),
+                () -> buildDayRows(timetable.day(today.getDayOfWeek())));
+        return new Today(timetable, today, rows);
+    }
 
+    private DayRows buildDayRows(List<TimetableEngine.Slot> slots) {
+        List<ScheduleItem> items = new ArrayList<>(slots.size());
+        List<ClassAdapter.Row> upcoming = new ArrayList<>(slots.size());
+        List<ClassAdapter.Row> past = new ArrayList<>(slots.size());
+        for (TimetableEngine.Slot slot : slots) {
             ScheduleItem item = new ScheduleItem();
-            item.subject = sanitizeSubject(entry.optString("subject_name", "Free Period"));
-            item.instructor = entry.optString("instructor_name", "—");
-            item.start = SLOT_STARTS[i];
-            item.end = SLOT_ENDS[i];
-            todaySchedule.add(item);
+            item.day = slot.day;
+            item.slot = slot.index;
+            item.subject = slot.subject;
+            item.instructor = slot.instructor;
+            item.start = slot.start;
+            item.end = slot.end;
+            items.add(item);
+            upcoming.add(ClassAdapter.row(item, upcomingStyle));
+            past.add(ClassAdapter.row(item, pastStyle));
         }
+        return new DayRows(
+                Collections.unmodifiableList(items),
+                Collections.unmodifiableList(upcoming),
+                Collections.unmodifiableList(past)
+        );
+    }
 
-        if (todaySchedule.isEmpty()) {
-            showEmptyState("No classes today");
+    public void renderTodaySchedule(@NonNull Today today) {
+        hideLoading();
+
+        if (today.rows.items.isEmpty()) {
+            showEmptyState("No classes scheduled today");
             return;
         }
 
-        host.scheduleTodayReminders(todaySchedule, LocalDate.now());
+        this.timetable = today.timetable;
+        this.scheduleDate = today.date;
+        this.todaySchedule = today.rows.items;
+        this.todayStates = new ClassState[today.rows.items.size()];
+        this.upcomingRows = today.rows.upcoming;
+        this.pastRows = today.rows.past;
+
+        host.scheduleTodayReminders(today.timetable, today.date);
         startUiTicker();
     }
 
@@ -130,71 +197,80 @@ public final class HomeScheduleController {
         return !todaySchedule.isEmpty();
     }
 
+    /**
+     * Refreshes the lists now and again at each slot boundary; in between,
+     * only the countdown text changes, once a second.
+     */
     public void startUiTicker() {
         stopUiTicker();
-        uiTickHandler = new Handler(Looper.getMainLooper());
-        tickRunnable = new Runnable() {
-            @Override
-            public void run() {
-                updateUiBasedOnCurrentTime();
-                uiTickHandler.postDelayed(this, 1000);
-            }
-        };
-        uiTickHandler.post(tickRunnable);
+        onSlotBoundary();
     }
 
     public void stopUiTicker() {
-        if (uiTickHandler != null && tickRunnable != null) {
-            uiTickHandler.removeCallbacks(tickRunnable);
-        }
+        uiHandler.removeCallbacks(boundaryRunnable);
+        uiHandler.removeCallbacks(countdownRunnable);
     }
 
     public void showErrorState(String message) {
         showEmptyState(message);
     }
 
-    private void updateUiBasedOnCurrentTime() {
-        LocalTime now = LocalTime.now();
-
-        ScheduleItem current = null;
-        List<ScheduleItem> upcoming = new ArrayList<>();
-        List<ScheduleItem> past = new ArrayList<>();
-
-        for (ScheduleItem item : todaySchedule) {
-            if (now.isAfter(item.end)) {
-                item.state = ClassState.PAST;
-                past.add(item);
-            } else if (now.isBefore(item.start)) {
-                item.state = ClassState.UPCOMING;
-                upcoming.add(item);
-            } else {
-                item.state = ClassState.CURRENT;
-                current = item;
-            }
+    private void onSlotBoundary() {
+        if (timetable == null) {
+            return;
         }
+        LocalDateTime now = scheduleDate.atTime(LocalTime.now());
+        TimetableEngine.Moment moment = timetable.at(now);
+        updateUiForMoment(moment);
+
+        uiHandler.removeCallbacks(countdownRunnable);
+        countdownEnd = moment.current != null ? scheduleDate.atTime(moment.current.end) : null;
+        onCountdownTick();
 
-        if (current != null) {
-            showCurrentClass(current, now);
-        } else if (!upcoming.isEmpty()) {
-            showNextClass(upcoming.get(0));
+        if (moment.nextChange != null) {
+            long delayMs = Duration.between(now, moment.nextChange).toMillis();
+            uiHandler.postDelayed(boundaryRunnable, Math.max(0, delayMs) + BOUNDARY_SLACK_MS);
+        }
+    }
+
+    private void onCountdownTick() {
+        if (countdownEnd == null) {
+            return;
+        }
+        LocalDateTime now = scheduleDate.atTime(LocalTime.now());
+        long secondsRemaining = Math.max(0, Duration.between(now, countdownEnd).getSeconds());
+        tvCurrentTime.setText(formatRemainingTime(secondsRemaining));
+        // Next wall-clock second, so the display never skips or repeats one.
+        uiHandler.postDelayed(countdownRunnable, 1000 - System.currentTimeMillis() % 1000);
+    }
+
+    private void updateUiForMoment(TimetableEngine.Moment moment) {
+        int upcomingFrom = moment.current != null ? moment.current.index + 1 : moment.pastCount;
+        for (int i = 0; i < todayStates.length; i++) {
+            todayStates[i] = i < moment.pastCount
+                    ? ClassState.PAST
+                    : i < upcomingFrom ? ClassState.CURRENT : ClassState.UPCOMING;
+        }
+
+        if (moment.current != null) {
+            showCurrentClass(todaySchedule.get(moment.current.index));
+        } else if (moment.next != null) {
+            showNextClass(todaySchedule.get(moment.next.index));
         } else {
             showDayFinished();
         }
 
+        List<ClassAdapter.Row> upcoming = new ArrayList<>(
+                upcomingRows.subList(upcomingFrom, upcomingRows.size()));
+        List<ClassAdapter.Row> past = new ArrayList<>(pastRows.subList(0, moment.pastCount));
         Collections.reverse(past);
         updateRecyclerViews(upcoming, past);
     }
 
-    private void showCurrentClass(ScheduleItem item, LocalTime now) {
+    private void showCurrentClass(ScheduleItem item) {
         cardCurrentClass.setVisibility(View.VISIBLE);
-        long secondsRemaining = Duration.between(now, item.end).getSeconds();
-        if (secondsRemaining < 0) {
-            secondsRemaining = 0;
-        }
-
         tvCurrentSubject.setText(item.subject);
         tvCurrentInstructor.setText(item.instructor);
-        tvCurrentTime.setText(formatRemainingTime(secondsRemaining));
     }
 
     private void showNextClass(ScheduleItem next) {
@@ -219,6 +295,8 @@ public final class HomeScheduleController {
 
     private void showEmptyState(String message) {
         hideLoading();
+        stopUiTicker();
+        countdownEnd = null;
         cardCurrentClass.setVisibility(View.VISIBLE);
         tvCurrentSubject.setText(message);
         tvCurrentInstructor.setText("");
@@ -226,7 +304,7 @@ public final class HomeScheduleController {
         updateRecyclerViews(new ArrayList<>(), new ArrayList<>());
     }
 
-    private void updateRecyclerViews(List<ScheduleItem> upcoming, List<ScheduleItem> past) {
+    private void updateRecyclerViews(List<ClassAdapter.Row> upcoming, List<ClassAdapter.Row> past) {
         if (upcoming.isEmpty()) {
             rvUpcoming.setVisibility(View.GONE);
             if (upcomingHeader != null) {
@@ -237,8 +315,8 @@ public final class HomeScheduleController {
             if (upcomingHeader != null) {
                 upcomingHeader.setVisibility(View.VISIBLE);
             }
-            rvUpcoming.setAdapter(new ClassAdapter(upcoming, R.layout.item_class_upcoming));
         }
+        upcomingAdapter.submitList(upcoming);
 
         if (past.isEmpty()) {
             rvPrevious.setVisibility(View.GONE);
@@ -250,8 +328,8 @@ public final class HomeScheduleController {
             if (pastHeader != null) {
                 pastHeader.setVisibility(View.VISIBLE);
             }
-            rvPrevious.setAdapter(new ClassAdapter(past, R.layout.item_class_previous));
         }
+        pastAdapter.submitList(past);
     }
 
     private String formatRemainingTime(long totalSeconds) {
@@ -266,23 +344,4 @@ public final class HomeScheduleController {
         }
         return String.format(Locale.US, "Ends in %02d sec", s);
     }
-
-    private void validateTimeSlots() {
-        if (SLOT_STARTS.length != SLOT_ENDS.length) {
-            throw new IllegalStateException("Slot arrays length mismatch");
-        }
-
-        for (int i = 0; i < SLOT_STARTS.length; i++) {
-            if (!SLOT_STARTS[i].isBefore(SLOT_ENDS[i])) {
-                throw new IllegalStateException("Invalid slot: start ≥ end at index " + i);
-            }
-        }
-    }
-
-    private String sanitizeSubject(String subject) {
-        if ("null".equals(subject)) {
-            return "Free Period";
-        }
-        return subject;
-    }
 }
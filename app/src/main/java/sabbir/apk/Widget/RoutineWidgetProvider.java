@@ -3,23 +3,28 @@ package sabbir.apk.Widget;
 import android.app.PendingIntent;
 import android.appwidget.AppWidgetManager;
 import android.appwidget.AppWidgetProvider;
+import android.content.BroadcastReceiver;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.widget.RemoteViews;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import com.atwebpages.sabbir28.Core.TaskScheduler;
 import com.atwebpages.sabbir28.Core.UserManager;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 
 import sabbir.apk.InterNet.API.GitHub.RoutineManagerApi;
+import sabbir.apk.InterNet.API.GitHub.RoutineRepository;
 import sabbir.apk.R;
+import sabbir.apk.Timetable.TimetableEngine;
 import sabbir.apk.UI.HomeActivity;
 
 public class RoutineWidgetProvider extends AppWidgetProvider {
@@ -29,9 +34,7 @@ public class RoutineWidgetProvider extends AppWidgetProvider {
 
     @Override
     public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
-        for (int appWidgetId : appWidgetIds) {
-            appWidgetManager.updateAppWidget(appWidgetId, buildRemoteViews(context));
-        }
+        refresh(context, appWidgetIds, goAsync());
     }
 
     @Override
@@ -47,20 +50,45 @@ public class RoutineWidgetProvider extends AppWidgetProvider {
                 || Intent.ACTION_DATE_CHANGED.equals(action)
                 || Intent.ACTION_BOOT_COMPLETED.equals(action)
                 || Intent.ACTION_MY_PACKAGE_REPLACED.equals(action)) {
-            updateAllWidgets(context);
+            refresh(context, null, goAsync());
         }
     }
 
+    /** Safe to call from any thread; returns before the widgets are redrawn. */
     public static void updateAllWidgets(@NonNull Context context) {
-        AppWidgetManager manager = AppWidgetManager.getInstance(context);
-        ComponentName widget = new ComponentName(context, RoutineWidgetProvider.class);
-        int[] ids = manager.getAppWidgetIds(widget);
-        if (ids == null || ids.length == 0) {
-            return;
-        }
-        for (int id : ids) {
-            manager.updateAppWidget(id, buildRemoteViews(context));
-        }
+        refresh(context, null, null);
+    }
+
+    /**
+     * Builds the views on the disk lane, since the schedule comes from the
+     * routine store, and pushes them from there.
+     *
+     * @param ids     widgets to update, or null for all of them
+     * @param pending the broadcast kept alive until the views are pushed
+     */
+    private static void refresh(
+            Context context,
+            @Nullable int[] ids,
+            @Nullable BroadcastReceiver.PendingResult pending
+    ) {
+        Context appContext = context.getApplicationContext();
+        TaskScheduler.run(TaskScheduler.Lane.DISK, TaskScheduler.Priority.USER_VISIBLE, () -> {
+            try {
+                AppWidgetManager manager = AppWidgetManager.getInstance(appContext);
+                int[] targets = ids != null
+                        ? ids
+                        : manager.getAppWidgetIds(
+                                new ComponentName(appContext, RoutineWidgetProvider.class));
+                if (targets == null || targets.length == 0) {
+                    return;
+                }
+                manager.updateAppWidget(targets, buildRemoteViews(appContext));
+            } finally {
+                if (pending != null) {
+                    pending.finish();
+                }
+            }
+        });
     }
 
     private static RemoteViews buildRemoteViews(Context context) {
@@ -143,78 +171,31 @@ public class RoutineWidgetProvider extends AppWidgetProvider {
 
     static final class RoutineWidgetSchedule {
 
-        static final LocalTime[] SLOT_STARTS = {
-                LocalTime.of(9, 15),
-                LocalTime.of(10, 0),
-                LocalTime.of(10, 45),
-                LocalTime.of(11, 30),
-                LocalTime.of(12, 15)
-        };
-
-        static final LocalTime[] SLOT_ENDS = {
-                LocalTime.of(10, 0),
-                LocalTime.of(10, 45),
-                LocalTime.of(11, 30),
-                LocalTime.of(12, 15),
-                LocalTime.of(13, 0)
-        };
-
+        /** Blocking: loads the timetable; call on the disk lane. */
         static ScheduleState loadCurrentState(Context context) {
-            org.json.JSONObject routine = RoutineManagerApi.readRoutine(context);
-            if (routine == null) {
-                return ScheduleState.empty();
-            }
+            TimetableEngine timetable = RoutineRepository.getInstance(context).getTimetable();
+            LocalDateTime now = LocalDateTime.now();
 
-            try {
-                org.json.JSONObject schedule = routine.getJSONObject("schedule");
-                org.json.JSONArray today =
-                        schedule.optJSONArray(LocalDate.now().getDayOfWeek().name());
-
-                if (today == null || today.length() == 0) {
-                    return ScheduleState.empty();
-                }
-
-                LocalTime now = LocalTime.now();
-                ScheduleState firstUpcoming = null;
-
-                for (int i = 0; i < Math.min(today.length(), SLOT_STARTS.length); i++) {
-                    org.json.JSONObject item = today.getJSONObject(i);
-                    String subject = sanitizeSubject(
-                            item.optString("subject_name", "Free Period")
-                    );
-                    String instructor = item.optString("instructor_name", "—");
-
-                    LocalTime start = SLOT_STARTS[i];
-                    LocalTime end = SLOT_ENDS[i];
-
-                    if (!now.isBefore(start) && now.isBefore(end)) {
-                        return ScheduleState.current(
-                                subject,
-                                instructor,
-                                end.format(TIME_FORMATTER)
-                        );
-                    }
-
-                    if (now.isBefore(start) && firstUpcoming == null) {
-                        firstUpcoming = ScheduleState.upcoming(
-                                subject,
-                                instructor,
-                                start.format(TIME_FORMATTER)
-                        );
-                    }
-                }
-
-                return firstUpcoming != null
-                        ? firstUpcoming
-                        : ScheduleState.finished();
-
-            } catch (Exception e) {
+            if (timetable == null || timetable.day(now.getDayOfWeek()).isEmpty()) {
                 return ScheduleState.empty();
             }
-        }
 
-        private static String sanitizeSubject(String subject) {
-            return "null".equals(subject) ? "Free Period" : subject;
+            TimetableEngine.Moment moment = timetable.at(now);
+            if (moment.current != null) {
+                return ScheduleState.current(
+                        moment.current.subject,
+                        moment.current.instructor,
+                        moment.current.end.format(TIME_FORMATTER)
+                );
+            }
+            if (moment.next != null) {
+                return ScheduleState.upcoming(
+                        moment.next.subject,
+                        moment.next.instructor,
+                        moment.next.start.format(TIME_FORMATTER)
+                );
+            }
+            return ScheduleState.finished();
         }
     }
 